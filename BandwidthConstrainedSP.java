@@ -0,0 +1,147 @@
+/******************************************************************************
+ *
+ *  Lowest latency paths that only use links with at least a requested
+ *  bandwidth, answered from cached filtered views of a CSRGraph.
+ *
+ ******************************************************************************/
+import java.util.*;
+
+/**
+ *  The {@code BandwidthConstrainedSP} class answers lowest latency path
+ *  queries restricted to the arcs of a {@link CSRGraph} whose bandwidth is at
+ *  least a given floor.
+ *  <p>
+ *  Only the distinct bandwidth values of the graph matter: a floor selects
+ *  the same arcs as the smallest distinct bandwidth at or above it. Those
+ *  thresholds are sorted once by the constructor. For each threshold that is
+ *  queried, the graph is filtered once with {@link CSRGraph#filter(int)} and
+ *  the view gets its own {@link ShortestPathCache}, so repeated queries with
+ *  the same floor and source take constant time.
+ *  <p>
+ *  At most {@code capacity} filtered views are kept; when the cache is full
+ *  the least recently used view is evicted. Building a view takes time
+ *  proportional to <em>E</em>, and each view uses space proportional to
+ *  <em>E</em> plus that of its shortest path cache.
+ */
+public class BandwidthConstrainedSP {
+    public static final int DEFAULT_CAPACITY = 8;        // filtered views kept
+    public static final int TREES_PER_VIEW = 16;         // shortest path trees kept per view
+
+    private final CSRGraph G;
+    private final int[] thresholds;                      // distinct arc bandwidths, ascending
+    private final int capacity;
+    private final LinkedHashMap<Integer, ShortestPathCache> views;  // threshold index -> view
+
+    /**
+     * Collects the distinct bandwidths of {@code G}, keeping at most
+     * {@code DEFAULT_CAPACITY} filtered views.
+     * @param G the CSR graph
+     */
+    public BandwidthConstrainedSP(CSRGraph G) {
+        this(G, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Collects the distinct bandwidths of {@code G}, keeping at most
+     * {@code capacity} filtered views.
+     * @param G the CSR graph
+     * @param capacity the maximum number of filtered views kept in memory
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public BandwidthConstrainedSP(CSRGraph G, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.G = G;
+        this.capacity = capacity;
+
+        int[] sorted = new int[G.E()];
+        for (int a = 0; a < G.E(); a++)
+            sorted[a] = G.bandwidth(a);
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++)
+            if (n == 0 || sorted[i] != sorted[n-1]) sorted[n++] = sorted[i];
+        thresholds = Arrays.copyOf(sorted, n);
+
+        // access-ordered map, so iteration order is least recently used first
+        views = new LinkedHashMap<Integer, ShortestPathCache>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathCache> eldest) {
+                return size() > BandwidthConstrainedSP.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the distinct bandwidths of the graph's arcs in ascending order.
+     * Any floor between two consecutive values behaves like the larger one.
+     * @return the bandwidth thresholds
+     */
+    public int[] thresholds() {
+        return thresholds.clone();
+    }
+
+    // shortest path cache over the arcs with bandwidth >= minBandwidth
+    private ShortestPathCache view(int minBandwidth) {
+        int i = Arrays.binarySearch(thresholds, minBandwidth);
+        if (i < 0) i = -(i + 1);            // smallest threshold above the floor
+        ShortestPathCache view = views.get(i);
+        if (view == null) {
+            // past the largest threshold no arc survives, which filter() handles too
+            int floor = i < thresholds.length ? thresholds[i] : minBandwidth;
+            view = new ShortestPathCache(G.filter(floor), TREES_PER_VIEW);
+            views.put(i, view);
+        }
+        return view;
+    }
+
+    /**
+     * Returns a lowest latency path from {@code s} to {@code t} using only arcs
+     * with bandwidth at least {@code minBandwidth}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @param  minBandwidth the smallest bandwidth an arc on the path may have
+     * @return the path as an iterable of edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t, int minBandwidth) {
+        return view(minBandwidth).path(s, t);
+    }
+
+    /**
+     * Is there a path from {@code s} to {@code t} using only arcs with
+     * bandwidth at least {@code minBandwidth}?
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @param  minBandwidth the smallest bandwidth an arc on the path may have
+     * @return {@code true} if there is such a path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t, int minBandwidth) {
+        return view(minBandwidth).hasPath(s, t);
+    }
+
+    /**
+     * Returns the latency of a lowest latency path from {@code s} to {@code t}
+     * using only arcs with bandwidth at least {@code minBandwidth}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @param  minBandwidth the smallest bandwidth an arc on the path may have
+     * @return the latency in seconds; {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double dist(int s, int t, int minBandwidth) {
+        return view(minBandwidth).dist(s, t);
+    }
+
+    /**
+     * Returns the smallest bandwidth on the path returned by {@code path()}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @param  minBandwidth the smallest bandwidth an arc on the path may have
+     * @return the bottleneck bandwidth; {@code Integer.MAX_VALUE} if {@code s == t},
+     *         and {@code 0} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public int bandwidth(int s, int t, int minBandwidth) {
+        return view(minBandwidth).bandwidth(s, t);
+    }
+}
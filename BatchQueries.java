@@ -0,0 +1,250 @@
+/******************************************************************************
+ *
+ *  Non-interactive lowest latency path queries: reads source/target pairs,
+ *  answers them with one Dijkstra run per distinct source, and streams the
+ *  results in input order.
+ *
+ ******************************************************************************/
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ *  The {@code BatchQueries} class answers many lowest latency path queries
+ *  over a {@link CSRGraph} at once.
+ *  <p>
+ *  The input holds one query per line, a source and a target vertex
+ *  separated by white space; blank lines are skipped. Every query produces
+ *  one output line, in input order, holding the source, the target, the
+ *  latency in seconds, the smallest bandwidth on the path and the path's
+ *  edges, for example {@code 0 6 1.05E-6 100 0->2 2->5 5->6}. Latencies
+ *  follow a {@link LatencyModel}, by default {@code LatencyModel.PROPAGATION}. A path from a
+ *  vertex to itself has latency 0, bandwidth 0 and no edges, and a target
+ *  that cannot be reached gives {@code 0 6 unreachable}. A line that is not
+ *  a pair of vertices between 0 and <em>V</em>-1 does not stop the run; it
+ *  gives an error result in its place, such as
+ *  {@code line 17 invalid: vertex 9999 is not between 0 and 1999}. The paths are the
+ *  ones {@link DijkstraSP} finds under the same model; with the default
+ *  model they are the paths of the interactive menu.
+ *  <p>
+ *  The queries are read in windows of {@code WINDOW} pairs. Within a window
+ *  the queries are sorted by source, so each distinct source is searched
+ *  once, with a full search when it has several targets and a search that
+ *  stops at the target otherwise. The sources are split across a
+ *  {@link ForkJoinPool}; each worker thread keeps one {@link DijkstraWorkspace}
+ *  and path buffer for every window of a run, and the window's results are written in order before the next window is
+ *  read, so memory stays bounded however long the input is. A source that
+ *  appears in several windows is searched once per window.
+ */
+public class BatchQueries {
+    public static final int WINDOW = 1 << 16;       // queries answered per round
+
+    private final CSRGraph G;
+    private final double[] latency;                 // latency[a] = cost of arc a under the model
+    private final int parallelism;
+
+    // the search buffers of each worker thread, allocated on its first group
+    private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+        protected Worker initialValue() {
+            return new Worker();
+        }
+    };
+
+    /**
+     * Prepares to answer queries on {@code G} using every available processor.
+     * @param G the CSR graph
+     */
+    public BatchQueries(CSRGraph G) {
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Prepares to answer queries on {@code G} with {@code parallelism} threads.
+     * The output is the same for any number of threads.
+     * @param G the CSR graph
+     * @param parallelism the number of worker threads
+     * @throws IllegalArgumentException if {@code parallelism < 1}
+     */
+    public BatchQueries(CSRGraph G, int parallelism) {
+        this(G, LatencyModel.PROPAGATION, parallelism);
+    }
+
+    /**
+     * Prepares to answer queries on {@code G} with {@code parallelism}
+     * threads, computing every arc's latency with {@code model}.
+     * @param G the CSR graph
+     * @param model the latency model
+     * @param parallelism the number of worker threads
+     * @throws IllegalArgumentException if {@code parallelism < 1}
+     */
+    public BatchQueries(CSRGraph G, LatencyModel model, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        this.G = G;
+        this.latency = model == LatencyModel.PROPAGATION ? G.latencies() : model.latencies(G);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reads every query from {@code in} and writes its answer to {@code out}.
+     * Neither stream is closed; {@code out} is flushed.
+     * @param  in the source/target pairs, one per line
+     * @param  out receives one result line per query
+     * @return the number of queries answered, not counting invalid lines
+     * @throws IOException if reading or writing fails
+     */
+    public long run(BufferedReader in, Writer out) throws IOException {
+        int[] source = new int[WINDOW], target = new int[WINDOW];
+        String[] result = new String[WINDOW];
+        long answered = 0;
+        int line = 0;
+        boolean done = false;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (!done) {
+                int n = 0;
+                while (n < WINDOW) {
+                    String text = in.readLine();
+                    if (text == null) {
+                        done = true;
+                        break;
+                    }
+                    line++;
+                    if (parse(text, line, source, target, result, n)) n++;
+                }
+                if (n == 0) break;
+                answered += answer(pool, source, target, n, result);
+                for (int q = 0; q < n; q++) {
+                    out.write(result[q]);
+                    out.write('\n');
+                    result[q] = null;
+                }
+            }
+            out.flush();
+        }
+        finally {
+            pool.shutdown();
+        }
+        return answered;
+    }
+
+    // reads the pair on one line into source[q] and target[q], or marks query q
+    // invalid with source[q] = -1 and its error in result[q]; false for a blank line
+    private boolean parse(String text, int line, int[] source, int[] target, String[] result, int q) {
+        int[] pair = new int[2];
+        int n = 0, i = 0, length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) { i++; continue; }
+            if (n == 2) return invalid(line, "more than two vertices", source, result, q);
+            long value = 0;
+            int start = i;
+            while (i < length && !Character.isWhitespace(c = text.charAt(i))) {
+                if (c < '0' || c > '9' || i - start > 9) return invalid(line, "malformed vertex", source, result, q);
+                value = value * 10 + (c - '0');
+                i++;
+            }
+            if (value >= G.V())
+                return invalid(line, "vertex " + value + " is not between 0 and " + (G.V()-1), source, result, q);
+            pair[n++] = (int) value;
+        }
+        if (n == 0) return false;
+        if (n != 2) return invalid(line, "expected a source and a target vertex", source, result, q);
+        source[q] = pair[0];
+        target[q] = pair[1];
+        return true;
+    }
+
+    private static boolean invalid(int line, String reason, int[] source, String[] result, int q) {
+        source[q] = -1;
+        result[q] = "line " + line + " invalid: " + reason;
+        return true;
+    }
+
+    // fills result[q] for the valid queries among 0 .. n-1, searching once per
+    // distinct source, and returns their number
+    private int answer(ForkJoinPool pool, int[] source, int[] target, int n, String[] result) {
+        // sort query ids by source, keeping input order within a source
+        long[] keys = new long[n];
+        int m = 0;
+        for (int q = 0; q < n; q++)
+            if (source[q] != -1) keys[m++] = ((long) source[q] << 32) | q;
+        Arrays.sort(keys, 0, m);
+        int[] order = new int[m];
+        int[] groupStart = new int[m + 1];
+        int groups = 0;
+        for (int k = 0; k < m; k++) {
+            order[k] = (int) keys[k];
+            if (k == 0 || source[order[k]] != source[order[k-1]]) groupStart[groups++] = k;
+        }
+        groupStart[groups] = m;
+
+        int grain = Math.max(1, groups / (8 * parallelism));
+        pool.invoke(new Groups(0, groups, grain, order, groupStart, source, target, result));
+        return m;
+    }
+
+    // one worker thread's search buffers
+    private class Worker {
+        private final DijkstraWorkspace sp = new DijkstraWorkspace(G, latency);
+        private final int[] path = new int[Math.max(G.V() - 1, 0)];
+        private final StringBuilder line = new StringBuilder();
+    }
+
+    // answers the queries of groups lo .. hi-1, splitting until a range is at most grain groups
+    private class Groups extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int lo, hi, grain;
+        private final int[] order, groupStart, source, target;
+        private final String[] result;
+
+        Groups(int lo, int hi, int grain, int[] order, int[] groupStart, int[] source, int[] target,
+               String[] result) {
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+            this.order = order;
+            this.groupStart = groupStart;
+            this.source = source;
+            this.target = target;
+            this.result = result;
+        }
+
+        protected void compute() {
+            if (hi - lo > grain) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Groups(lo, mid, grain, order, groupStart, source, target, result),
+                          new Groups(mid, hi, grain, order, groupStart, source, target, result));
+                return;
+            }
+            Worker worker = workers.get();
+            DijkstraWorkspace sp = worker.sp;
+            for (int g = lo; g < hi; g++) {
+                int first = groupStart[g], last = groupStart[g+1];
+                int s = source[order[first]];
+                if (last - first == 1) sp.run(s, target[order[first]]);
+                else                   sp.run(s);
+                for (int k = first; k < last; k++) {
+                    int q = order[k];
+                    result[q] = format(sp, s, target[q], worker.path, worker.line);
+                }
+            }
+        }
+    }
+
+    // one output line for the query s->t answered by the latest run of sp
+    private String format(DijkstraWorkspace sp, int s, int t, int[] buffer, StringBuilder line) {
+        line.setLength(0);
+        line.append(s).append(' ').append(t).append(' ');
+        if (!sp.hasPathTo(t)) return line.append("unreachable").toString();
+        line.append(sp.distTo(t)).append(' ');
+        line.append(s == t ? 0 : sp.bandwidthTo(t));   // reported as 0 for s == t, like the menu
+        int n = sp.pathTo(t, buffer);
+        int v = s;
+        for (int i = 0; i < n; i++) {
+            int w = G.target(buffer[i]);
+            line.append(' ').append(v).append("->").append(w);
+            v = w;
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,172 @@
+/******************************************************************************
+ *
+ *  Point-to-point shortest path using bidirectional Dijkstra: one search
+ *  grows forward from s, the other backward from t, and they meet in the middle.
+ *
+ ******************************************************************************/
+import java.util.*;
+
+/**
+ *  The {@code BidirectionalDijkstraSP} class represents a data type for finding
+ *  a single shortest path from a source vertex <em>s</em> to a target vertex
+ *  <em>t</em> in an edge-weighted digraph with nonnegative edge weights.
+ *  <p>
+ *  A forward Dijkstra search runs on {@code G} from <em>s</em> and a backward
+ *  search runs on the reverse digraph {@code R} from <em>t</em>; the side with
+ *  the smaller minimum key is advanced each step. Every edge scanned that
+ *  reaches a vertex labelled by the other side gives a candidate path, and the
+ *  search stops once the two minimum keys add up to at least the best candidate.
+ *  Both searches usually settle far fewer vertices than a single full
+ *  {@link DijkstraSP} run.
+ *  <p>
+ *  The reverse digraph can be built once with {@link EdgeWeightedDigraph#reverse()}
+ *  and shared between queries. A dual way digraph (one edge in each direction
+ *  for every cable) is its own reverse, so it can be passed as both {@code G}
+ *  and {@code R}.
+ */
+public class BidirectionalDijkstraSP {
+    private double[] distF;           // distF[v] = distance of shortest known s->v path
+    private double[] distB;           // distB[v] = distance of shortest known v->t path
+    private DirectedEdge[] edgeF;     // edgeF[v] = last edge on shortest known s->v path
+    private DirectedEdge[] edgeB;     // edgeB[v] = first edge (in R) on shortest known v->t path
+    private double best = Double.POSITIVE_INFINITY;  // length of best s->t path found
+    private int meet = -1;            // vertex where the best path's two halves join
+    private int settled;              // number of vertices removed from either queue
+    private final int s, t;
+
+    /**
+     * Computes a shortest path from {@code s} to {@code t}, building the reverse
+     * of {@code G} first.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public BidirectionalDijkstraSP(EdgeWeightedDigraph G, int s, int t) {
+        this(G, G.reverse(), s, t);
+    }
+
+    /**
+     * Computes a shortest path from {@code s} to {@code t}.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  R the reverse of {@code G}
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code G} and {@code R} differ in size
+     */
+    public BidirectionalDijkstraSP(EdgeWeightedDigraph G, EdgeWeightedDigraph R, int s, int t) {
+        if (G.V() != R.V()) throw new IllegalArgumentException("G and R must have the same vertices");
+        int V = G.V();
+        distF = new double[V];
+        distB = new double[V];
+        edgeF = new DirectedEdge[V];
+        edgeB = new DirectedEdge[V];
+        this.s = s;
+        this.t = t;
+        validateVertex(s);
+        validateVertex(t);
+
+        for (int v = 0; v < V; v++) {
+            distF[v] = Double.POSITIVE_INFINITY;
+            distB[v] = Double.POSITIVE_INFINITY;
+        }
+        distF[s] = 0.0;
+        distB[t] = 0.0;
+        if (s == t) {
+            best = 0.0;
+            meet = s;
+            return;
+        }
+
+        IndexDoubleMinPQ pqF = new IndexDoubleMinPQ(V);
+        IndexDoubleMinPQ pqB = new IndexDoubleMinPQ(V);
+        pqF.insert(s, 0.0);
+        pqB.insert(t, 0.0);
+        while (!pqF.isEmpty() && !pqB.isEmpty()) {
+            if (pqF.minKey() + pqB.minKey() >= best) break;
+            if (pqF.minKey() <= pqB.minKey()) {
+                int v = pqF.delMin();
+                settled++;
+                for (DirectedEdge e : G.adj(v))
+                    relax(e, distF, edgeF, pqF, distB);
+            }
+            else {
+                int v = pqB.delMin();
+                settled++;
+                for (DirectedEdge e : R.adj(v))
+                    relax(e, distB, edgeB, pqB, distF);
+            }
+        }
+    }
+
+    // relax edge e for one side of the search and check whether it closes a better s->t path
+    private void relax(DirectedEdge e, double[] dist, DirectedEdge[] edgeTo,
+                       IndexDoubleMinPQ pq, double[] otherDist) {
+        int v = e.from(), w = e.to();
+        if (dist[w] > dist[v] + e.weight()) {
+            dist[w] = dist[v] + e.weight();
+            edgeTo[w] = e;
+            if (pq.contains(w)) pq.decreaseKey(w, dist[w]);
+            else                pq.insert(w, dist[w]);
+        }
+        if (dist[w] + otherDist[w] < best) {
+            best = dist[w] + otherDist[w];
+            meet = w;
+        }
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code s} to {@code t}.
+     * @return the length of a shortest path from {@code s} to {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     */
+    public double dist() {
+        return best;
+    }
+
+    /**
+     * Is there a path from {@code s} to {@code t}?
+     * @return {@code true} if there is a path from {@code s} to {@code t}
+     */
+    public boolean hasPath() {
+        return best < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the number of vertices settled by the forward and backward searches.
+     * @return the number of vertices removed from either priority queue
+     */
+    public int settled() {
+        return settled;
+    }
+
+    /**
+     * Returns a shortest path from {@code s} to {@code t}, with every edge
+     * oriented from {@code s} towards {@code t}.
+     * @return a shortest path from {@code s} to {@code t} as an iterable of
+     *         edges, and {@code null} if no such path
+     */
+    public Iterable<DirectedEdge> path() {
+        if (!hasPath()) return null;
+        Stack<DirectedEdge> forward = new Stack<DirectedEdge>();
+        for (DirectedEdge e = edgeF[meet]; e != null; e = edgeF[e.from()])
+            forward.push(e);
+        Queue<DirectedEdge> path = new Queue<DirectedEdge>();
+        for (DirectedEdge e : forward)
+            path.enqueue(e);
+        // backward edges live in R, so flip them back to their orientation in G
+        for (DirectedEdge e = edgeB[meet]; e != null; e = edgeB[e.from()])
+            path.enqueue(e.reverse());
+        return path;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = distF.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
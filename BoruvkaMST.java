@@ -0,0 +1,189 @@
+/******************************************************************************
+ *
+ *  Minimum spanning forest of an undirected NetworkGraph with Boruvka's
+ *  algorithm, scanning the edges of each round on a fork/join pool.
+ *
+ ******************************************************************************/
+import java.util.concurrent.*;
+
+/**
+ *  The {@code BoruvkaMST} class computes a minimum spanning forest of a
+ *  {@link NetworkGraph} with Bor&#367;vka's algorithm.
+ *  <p>
+ *  Each round finds, for every component of the forest built so far, the
+ *  lightest edge leaving it, and adds all of those edges at once; the number
+ *  of components at least halves, so there are at most log <em>V</em> rounds.
+ *  Edges are compared by weight, then by their endpoints, then by their
+ *  position in {@code G.edges()}. This order has no ties, which keeps the
+ *  chosen edges cycle free, and it is the order {@link KruskalMST} and
+ *  {@link PrimMST} use, so the three find the same forest.
+ *  <p>
+ *  The edges are copied into primitive arrays grouped by vertex. The part of
+ *  a round that reads every edge, finding the lightest edge out of each
+ *  vertex's component, only writes to that vertex's own slot, so the
+ *  vertices are split across a {@link ForkJoinPool}. Reducing those to one
+ *  edge per component and merging components with a {@link UF} take time
+ *  proportional to <em>V</em> per round and run on the calling thread.
+ *  <p>
+ *  {@code edges()} reports the forest the way {@link PrimMST} does; see
+ *  {@link KruskalMST}. The constructor takes time proportional to
+ *  <em>E</em> log <em>V</em> divided by the number of threads, plus
+ *  <em>V</em> log <em>V</em>, and extra space proportional to <em>E</em>.
+ */
+public class BoruvkaMST {
+    private final DirectedEdge[] edgeTo;   // edgeTo[v] = tree edge from v's parent to v
+
+    /**
+     * Computes a minimum spanning forest of {@code G} using every available processor.
+     * @param G the undirected network graph
+     */
+    public BoruvkaMST(NetworkGraph G) {
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes a minimum spanning forest of {@code G} with {@code parallelism}
+     * threads. The forest is the same for any number of threads.
+     * @param G the undirected network graph
+     * @param parallelism the number of worker threads
+     * @throws IllegalArgumentException if {@code parallelism < 1}
+     */
+    public BoruvkaMST(NetworkGraph G, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        int V = G.V();
+        Edge[] edges = KruskalMST.edgeArray(G);
+        int E = edges.length;
+        double[] weight = new double[E];
+        long[] tie = new long[E];
+        int[] either = new int[E], other = new int[E];
+
+        // incident edge ids of v are incident[begin[v]] .. incident[begin[v+1]-1]
+        int[] begin = new int[V + 1];
+        for (int i = 0; i < E; i++) {
+            weight[i] = edges[i].weight();
+            either[i] = edges[i].either();
+            other[i] = edges[i].other(either[i]);
+            tie[i] = KruskalMST.tieBreak(either[i], other[i]);
+            if (either[i] == other[i]) continue;       // a self loop never joins two components
+            begin[either[i] + 1]++;
+            begin[other[i] + 1]++;
+        }
+        for (int v = 0; v < V; v++)
+            begin[v + 1] += begin[v];
+        int[] next = java.util.Arrays.copyOf(begin, V);
+        int[] incident = new int[begin[V]];
+        for (int i = 0; i < E; i++) {
+            if (either[i] == other[i]) continue;
+            incident[next[either[i]]++] = i;
+            incident[next[other[i]]++] = i;
+        }
+
+        UF uf = new UF(V);
+        int[] comp = new int[V];            // comp[v] = component of v at the start of the round
+        int[] cheapest = new int[V];        // cheapest[v] = lightest edge from v out of comp[v], -1 if none
+        int[] compBest = new int[V];        // compBest[c] = lightest edge out of component c, -1 if none
+        for (int v = 0; v < V; v++)
+            comp[v] = v;
+        Edge[] tree = new Edge[Math.max(V - 1, 0)];
+        int n = 0;
+
+        int grain = Math.max(1, V / (8 * parallelism));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            while (n < tree.length) {
+                pool.invoke(new Scan(0, V, grain, begin, incident, either, other, weight, tie, comp, cheapest));
+                java.util.Arrays.fill(compBest, -1);
+                for (int v = 0; v < V; v++) {
+                    int e = cheapest[v];
+                    if (e != -1 && lighter(e, compBest[comp[v]], weight, tie)) compBest[comp[v]] = e;
+                }
+                int added = 0;
+                for (int c = 0; c < V; c++) {
+                    int e = compBest[c];
+                    if (e == -1 || uf.connected(either[e], other[e])) continue;
+                    uf.union(either[e], other[e]);
+                    tree[n++] = edges[e];
+                    added++;
+                }
+                if (added == 0) break;      // the forest spans every component
+                for (int v = 0; v < V; v++)
+                    comp[v] = uf.find(v);
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        edgeTo = KruskalMST.rootForest(V, tree, n);
+    }
+
+    // is edge e lighter than edge f (-1 meaning none) by weight, then endpoints, then edge id?
+    private static boolean lighter(int e, int f, double[] weight, long[] tie) {
+        if (f == -1 || KruskalMST.less(e, f, weight, tie)) return true;
+        return !KruskalMST.less(f, e, weight, tie) && e < f;
+    }
+
+    // finds cheapest[v] for the vertices lo .. hi-1, splitting until a range is at most grain vertices
+    private static class Scan extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int lo, hi, grain;
+        private final int[] begin, incident, either, other, comp, cheapest;
+        private final double[] weight;
+        private final long[] tie;
+
+        Scan(int lo, int hi, int grain, int[] begin, int[] incident, int[] either, int[] other,
+             double[] weight, long[] tie, int[] comp, int[] cheapest) {
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+            this.begin = begin;
+            this.incident = incident;
+            this.either = either;
+            this.other = other;
+            this.weight = weight;
+            this.tie = tie;
+            this.comp = comp;
+            this.cheapest = cheapest;
+        }
+
+        protected void compute() {
+            if (hi - lo > grain) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Scan(lo, mid, grain, begin, incident, either, other, weight, tie, comp, cheapest),
+                          new Scan(mid, hi, grain, begin, incident, either, other, weight, tie, comp, cheapest));
+                return;
+            }
+            for (int v = lo; v < hi; v++) {
+                int best = -1;
+                for (int k = begin[v]; k < begin[v + 1]; k++) {
+                    int e = incident[k];
+                    int w = either[e] == v ? other[e] : either[e];
+                    if (comp[w] != comp[v] && lighter(e, best, weight, tie)) best = e;
+                }
+                cheapest[v] = best;
+            }
+        }
+    }
+
+    /**
+     * Returns the edges in a minimum spanning tree (or forest).
+     * @return the edges in a minimum spanning tree (or forest) as
+     *    an iterable of edges
+     */
+    public Iterable<DirectedEdge> edges() {
+        Queue<DirectedEdge> mst = new Queue<DirectedEdge>();
+        for (int v = 0; v < edgeTo.length; v++)
+            if (edgeTo[v] != null) mst.enqueue(edgeTo[v]);
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in a minimum spanning tree (or forest).
+     * @return the sum of the edge weights in a minimum spanning tree (or forest)
+     */
+    public double weight() {
+        double weight = 0.0;
+        for (DirectedEdge e : edges())
+            weight += e.weight();
+        return weight;
+    }
+}
@@ -0,0 +1,321 @@
+/******************************************************************************
+ *
+ *  Immutable network graph stored in compressed sparse row (CSR) form.
+ *  The edges leaving vertex v are the arcs offset[v] .. offset[v+1]-1, and
+ *  each arc's data lives in parallel primitive arrays instead of edge objects.
+ *
+ ******************************************************************************/
+import java.util.*;
+
+/**
+ *  The {@code CSRGraph} class represents a directed network graph of vertices
+ *  named 0 through <em>V</em> - 1 in compressed sparse row form.
+ *  An undirected cable is stored as two arcs, one in each direction, just
+ *  like in the dual way {@link EdgeWeightedDigraph}.
+ *  <p>
+ *  Every arc is identified by an int between 0 and <em>E</em> - 1. The arcs
+ *  leaving vertex <em>v</em> are numbered {@code begin(v)} through
+ *  {@code end(v) - 1}, in the same order as {@code adj(v)} of the graph the
+ *  {@code CSRGraph} was built from, so searches visit edges in the same order.
+ *  Each arc costs 21 bytes (target, latency, bandwidth, length and media
+ *  type) and scanning a vertex's arcs reads consecutive array entries.
+ *  <p>
+ *  {@link DirectedEdge} objects are only created on demand by {@code edge(int)},
+ *  for example to report the edges of a path.
+ */
+public class CSRGraph {
+    private final int V;
+    private final int E;
+    private final int[] offset;      // arcs of v are offset[v] .. offset[v+1]-1
+    private final int[] target;      // target[a] = head vertex of arc a
+    private final double[] latency;  // latency[a] = seconds for a packet to cross arc a
+    private final int[] bandwidth;   // bandwidth[a] = bandwidth of arc a in megabits per second
+    private final int[] length;      // length[a] = cable length of arc a in meters
+    private final byte[] type;       // type[a] = media type code of arc a
+
+    /**
+     * Copies the edge-weighted digraph {@code G} into CSR form.
+     * @param G the edge-weighted digraph
+     */
+    public CSRGraph(EdgeWeightedDigraph G) {
+        V = G.V();
+        E = G.E();
+        offset = new int[V + 1];
+        target = new int[E];
+        latency = new double[E];
+        bandwidth = new int[E];
+        length = new int[E];
+        type = new byte[E];
+        int a = 0;
+        for (int v = 0; v < V; v++) {
+            offset[v] = a;
+            for (DirectedEdge e : G.adj(v)) {
+                target[a] = e.to();
+                latency[a] = e.weight();
+                bandwidth[a] = e.getBandwith();
+                length[a] = e.getLength();
+                type[a] = e.getTypeCode();
+                a++;
+            }
+        }
+        offset[V] = a;
+    }
+
+    /**
+     * Copies the undirected graph {@code G} into CSR form, storing every
+     * edge as one arc in each direction.
+     * @param G the undirected network graph
+     */
+    public CSRGraph(NetworkGraph G) {
+        V = G.V();
+        E = 2 * G.E();
+        offset = new int[V + 1];
+        target = new int[E];
+        latency = new double[E];
+        bandwidth = new int[E];
+        length = new int[E];
+        type = new byte[E];
+        int a = 0;
+        for (int v = 0; v < V; v++) {
+            offset[v] = a;
+            for (Edge e : G.adj(v)) {
+                target[a] = e.other(v);
+                latency[a] = e.weight();
+                bandwidth[a] = e.getBandwith();
+                length[a] = e.getLength();
+                type[a] = e.getTypeCode();
+                a++;
+            }
+        }
+        offset[V] = a;
+    }
+
+    /**
+     * Builds the CSR graph straight from parsed cable arrays, storing every
+     * cable as one arc in each direction. Arcs leave each vertex in file order,
+     * matching a dual way {@link EdgeWeightedDigraph} loaded from the same file.
+     * @param data the parsed network data file
+     */
+    public CSRGraph(NetworkDataParser data) {
+        V = data.V();
+        E = 2 * data.E();
+        int[] from = data.from(), to = data.to(), bw = data.bandwidth(), len = data.length();
+        byte[] code = data.type();
+        offset = new int[V + 1];
+        target = new int[E];
+        latency = new double[E];
+        bandwidth = new int[E];
+        length = new int[E];
+        type = new byte[E];
+
+        // count outdegrees, then turn the counts into start offsets
+        for (int i = 0; i < data.E(); i++) {
+            offset[from[i] + 1]++;
+            offset[to[i] + 1]++;
+        }
+        for (int v = 0; v < V; v++)
+            offset[v + 1] += offset[v];
+
+        int[] next = new int[V];
+        System.arraycopy(offset, 0, next, 0, V);
+        for (int i = 0; i < data.E(); i++) {
+            double seconds = MediaType.of(code[i]).latency(len[i]);
+            int a = next[from[i]]++;
+            target[a] = to[i];
+            latency[a] = seconds;
+            bandwidth[a] = bw[i];
+            length[a] = len[i];
+            type[a] = code[i];
+            a = next[to[i]]++;
+            target[a] = from[i];
+            latency[a] = seconds;
+            bandwidth[a] = bw[i];
+            length[a] = len[i];
+            type[a] = code[i];
+        }
+    }
+
+    /**
+     * Wraps arrays that are already in CSR form, such as those restored from a
+     * {@link GraphSnapshot}. The arrays are used directly, not copied, and the
+     * latencies are computed from the lengths and media types.
+     * @param V the number of vertices
+     * @param offset arcs of v are offset[v] .. offset[v+1]-1
+     * @param target head vertex of every arc
+     * @param bandwidth bandwidth of every arc
+     * @param length cable length of every arc
+     * @param type media type code of every arc
+     * @throws IllegalArgumentException if the array sizes do not match
+     */
+    public CSRGraph(int V, int[] offset, int[] target, int[] bandwidth, int[] length, byte[] type) {
+        if (offset.length != V + 1) throw new IllegalArgumentException("offset array must have V + 1 entries");
+        E = target.length;
+        if (bandwidth.length != E || length.length != E || type.length != E || offset[V] != E)
+            throw new IllegalArgumentException("arc arrays must all have E entries");
+        this.V = V;
+        this.offset = offset;
+        this.target = target;
+        this.bandwidth = bandwidth;
+        this.length = length;
+        this.type = type;
+        latency = new double[E];
+        for (int a = 0; a < E; a++)
+            latency[a] = MediaType.of(type[a]).latency(length[a]);
+    }
+
+    /**
+     * Returns the number of vertices.
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of arcs (twice the number of cables).
+     * @return the number of arcs
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns the id of the first arc leaving vertex {@code v}.
+     * @param  v the vertex
+     * @return the id of the first arc leaving {@code v}
+     */
+    public int begin(int v) {
+        return offset[v];
+    }
+
+    /**
+     * Returns one past the id of the last arc leaving vertex {@code v}.
+     * @param  v the vertex
+     * @return one past the id of the last arc leaving {@code v}
+     */
+    public int end(int v) {
+        return offset[v + 1];
+    }
+
+    /**
+     * Returns the number of arcs leaving vertex {@code v}.
+     * @param  v the vertex
+     * @return the outdegree of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offset[v + 1] - offset[v];
+    }
+
+    /**
+     * Returns the head vertex of arc {@code a}.
+     * @param  a the arc id
+     * @return the head vertex of arc {@code a}
+     */
+    public int target(int a) {
+        return target[a];
+    }
+
+    /**
+     * Returns the latency of arc {@code a} in seconds.
+     * @param  a the arc id
+     * @return the latency of arc {@code a} in seconds
+     */
+    public double latency(int a) {
+        return latency[a];
+    }
+
+    // the latency array itself, indexed by arc id; callers must not modify it
+    double[] latencies() {
+        return latency;
+    }
+
+    /**
+     * Returns the bandwidth of arc {@code a} in megabits per second.
+     * @param  a the arc id
+     * @return the bandwidth of arc {@code a} in megabits per second
+     */
+    public int bandwidth(int a) {
+        return bandwidth[a];
+    }
+
+    /**
+     * Returns the cable length of arc {@code a} in meters.
+     * @param  a the arc id
+     * @return the cable length of arc {@code a} in meters
+     */
+    public int length(int a) {
+        return length[a];
+    }
+
+    /**
+     * Returns the media type code of arc {@code a}; see {@link MediaType}.
+     * @param  a the arc id
+     * @return the media type code of arc {@code a}
+     */
+    public byte type(int a) {
+        return type[a];
+    }
+
+    /**
+     * Returns the tail vertex of arc {@code a}, found by binary search on the offsets.
+     * @param  a the arc id
+     * @return the vertex arc {@code a} leaves from
+     */
+    public int tail(int a) {
+        int lo = 0, hi = V - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offset[mid] <= a) lo = mid;
+            else                  hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns arc {@code a} as a newly allocated {@link DirectedEdge}.
+     * @param  a the arc id
+     * @return a directed edge with the same endpoints and cable data as arc {@code a}
+     */
+    public DirectedEdge edge(int a) {
+        return new DirectedEdge(tail(a), target[a], MediaType.of(type[a]), bandwidth[a], length[a]);
+    }
+
+    /**
+     * Returns the subgraph of the arcs with bandwidth at least {@code minBandwidth}.
+     * Every vertex is kept, and the arcs leaving each vertex stay in the same order.
+     * @param  minBandwidth the smallest bandwidth an arc may have
+     * @return a new {@code CSRGraph} with the same vertices and the selected arcs
+     */
+    public CSRGraph filter(int minBandwidth) {
+        int[] subOffset = new int[V + 1];
+        for (int v = 0; v < V; v++) {
+            int kept = 0;
+            for (int a = offset[v]; a < offset[v+1]; a++)
+                if (bandwidth[a] >= minBandwidth) kept++;
+            subOffset[v+1] = subOffset[v] + kept;
+        }
+        int subE = subOffset[V];
+        int[] subTarget = new int[subE];
+        int[] subBandwidth = new int[subE];
+        int[] subLength = new int[subE];
+        byte[] subType = new byte[subE];
+        int b = 0;
+        for (int a = 0; a < E; a++) {
+            if (bandwidth[a] < minBandwidth) continue;
+            subTarget[b] = target[a];
+            subBandwidth[b] = bandwidth[a];
+            subLength[b] = length[a];
+            subType[b] = type[a];
+            b++;
+        }
+        return new CSRGraph(V, subOffset, subTarget, subBandwidth, subLength, subType);
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
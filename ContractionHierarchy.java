@@ -0,0 +1,775 @@
+/******************************************************************************
+ *  Compilation:  javac ContractionHierarchy.java
+ *  Execution:    java ContractionHierarchy network_data.txt network_data.ch
+ *                java ContractionHierarchy network_data.txt network_data.ch 1000
+ *
+ *  Contraction hierarchy index for fast point-to-point lowest latency
+ *  queries. The first form builds the index and writes it to disk; the
+ *  second reads it back and cross-checks 1000 random pairs against DijkstraSP.
+ *
+ ******************************************************************************/
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ *  The {@code ContractionHierarchy} class answers shortest path queries on
+ *  a static {@link EdgeWeightedDigraph} after a one-time preprocessing step.
+ *  <p>
+ *  Preprocessing contracts the vertices one at a time in order of importance.
+ *  Contracting <em>v</em> removes it from the remaining graph and, for every
+ *  pair of edges <em>u</em>-&gt;<em>v</em>-&gt;<em>x</em> whose path is not
+ *  matched by a witness path avoiding <em>v</em>, adds a shortcut edge
+ *  <em>u</em>-&gt;<em>x</em> that remembers <em>v</em> as its middle vertex.
+ *  The order is chosen lazily with an {@link IndexDoubleMinPQ} keyed by the
+ *  edge difference (shortcuts added minus edges removed) plus the number of
+ *  neighbors already contracted. Witness searches settle at most
+ *  {@code WITNESS_SETTLE_LIMIT} vertices; giving up early only adds shortcuts
+ *  that are not needed, never wrong answers.
+ *  <p>
+ *  A query runs Dijkstra's algorithm forward from <em>s</em> and backward from
+ *  <em>t</em>, both only along edges leading to vertices contracted later,
+ *  and stops each side once its smallest key reaches the best meeting point.
+ *  Both searches usually settle a tiny fraction of the graph. The path found
+ *  is unpacked into original edges, and its latency is summed along them in
+ *  order from <em>s</em>, just as {@link DijkstraSP} accumulates it.
+ *  <p>
+ *  Hierarchical topologies such as leaf/spine fabrics and trees of access
+ *  links need few shortcuts. Random sparse graphs without such structure
+ *  are the worst case: their dense core gains many shortcuts and
+ *  preprocessing slows down accordingly.
+ *  <p>
+ *  The index can be written to disk and read back with {@code write()} and
+ *  {@code read()}. Queries reuse search buffers, so a
+ *  {@code ContractionHierarchy} is not thread safe; read one copy per thread.
+ */
+public class ContractionHierarchy {
+    public static final int MAGIC = 0x4843454E;         // "NECH" read as a little endian int
+    public static final int VERSION = 1;
+    public static final int WITNESS_SETTLE_LIMIT = 500;
+    private static final int HEADER_BYTES = 20;
+
+    private final int V;
+
+    // the original edges that shortcuts unpack into
+    private final int[] edgeFrom, edgeTo, edgeBandwidth, edgeLength, edgeType;
+
+    // upward edges in CSR form: up[v] holds v->x with x contracted after v,
+    // down[v] holds u->v with u contracted after v (scanned backwards from v)
+    private final int[] upBegin, upOther, upMid, upEdge;
+    private final double[] upWeight;
+    private final int[] downBegin, downOther, downMid, downEdge;
+    private final double[] downWeight;
+
+    // query buffers
+    private final double[] distF, distB;
+    private final int[] arcF, arcB;     // arc used to reach v; -1 at the search roots
+    private final int[] touched;
+    private int touchedCount;
+    private final IndexDoubleMinPQ pqF, pqB;
+    private int lastS = -1, lastT = -1, meet = -1;
+    private Queue<DirectedEdge> lastPath;
+
+    /**
+     * Contracts every vertex of {@code G} and keeps the resulting hierarchy.
+     * Takes time roughly proportional to the number of shortcuts times the
+     * witness search limit.
+     * @param  G the edge-weighted digraph
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public ContractionHierarchy(EdgeWeightedDigraph G) {
+        V = G.V();
+        int E = G.E();
+        edgeFrom = new int[E];
+        edgeTo = new int[E];
+        edgeBandwidth = new int[E];
+        edgeLength = new int[E];
+        edgeType = new int[E];
+        int m = 0;
+        Builder builder = new Builder(V);
+        for (DirectedEdge e : G.edges()) {
+            if (e.weight() < 0) throw new IllegalArgumentException("edge " + e + " has negative weight");
+            edgeFrom[m] = e.from();
+            edgeTo[m] = e.to();
+            edgeBandwidth[m] = e.getBandwith();
+            edgeLength[m] = e.getLength();
+            edgeType[m] = e.getTypeCode();
+            builder.addEdge(e.from(), e.to(), e.weight(), m);
+            m++;
+        }
+        int[] rank = builder.contractAll();
+
+        upBegin = new int[V + 1];
+        downBegin = new int[V + 1];
+        for (int v = 0; v < V; v++) {
+            upBegin[v+1] = upBegin[v] + builder.out[v].countAbove(rank, v);
+            downBegin[v+1] = downBegin[v] + builder.in[v].countAbove(rank, v);
+        }
+        upOther = new int[upBegin[V]];
+        upMid = new int[upBegin[V]];
+        upEdge = new int[upBegin[V]];
+        upWeight = new double[upBegin[V]];
+        downOther = new int[downBegin[V]];
+        downMid = new int[downBegin[V]];
+        downEdge = new int[downBegin[V]];
+        downWeight = new double[downBegin[V]];
+        for (int v = 0; v < V; v++) {
+            builder.out[v].copyAbove(rank, v, upBegin[v], upOther, upWeight, upMid, upEdge);
+            builder.in[v].copyAbove(rank, v, downBegin[v], downOther, downWeight, downMid, downEdge);
+        }
+
+        distF = new double[V];
+        distB = new double[V];
+        arcF = new int[V];
+        arcB = new int[V];
+        touched = new int[V];
+        pqF = new IndexDoubleMinPQ(V);
+        pqB = new IndexDoubleMinPQ(V);
+        initBuffers();
+    }
+
+    // used by read(): every array is restored from disk
+    private ContractionHierarchy(int V, int[][] edges, int[][] up, double[] upWeight,
+                                 int[][] down, double[] downWeight) {
+        this.V = V;
+        edgeFrom = edges[0];
+        edgeTo = edges[1];
+        edgeBandwidth = edges[2];
+        edgeLength = edges[3];
+        edgeType = edges[4];
+        upBegin = up[0];
+        upOther = up[1];
+        upMid = up[2];
+        upEdge = up[3];
+        this.upWeight = upWeight;
+        downBegin = down[0];
+        downOther = down[1];
+        downMid = down[2];
+        downEdge = down[3];
+        this.downWeight = downWeight;
+        distF = new double[V];
+        distB = new double[V];
+        arcF = new int[V];
+        arcB = new int[V];
+        touched = new int[V];
+        pqF = new IndexDoubleMinPQ(V);
+        pqB = new IndexDoubleMinPQ(V);
+        initBuffers();
+    }
+
+    private void initBuffers() {
+        for (int v = 0; v < V; v++) {
+            distF[v] = Double.POSITIVE_INFINITY;
+            distB[v] = Double.POSITIVE_INFINITY;
+            arcF[v] = -1;
+            arcB[v] = -1;
+        }
+    }
+
+
+   /***************************************************************************
+    * Preprocessing.
+    ***************************************************************************/
+
+    // growable list of the edges between one vertex and its neighbors
+    private static class ArcList {
+        int n;
+        int[] other = new int[2];      // the neighbor at the far end
+        double[] weight = new double[2];
+        int[] mid = new int[2];        // middle vertex of a shortcut, -1 for an original edge
+        int[] edge = new int[2];       // original edge id, -1 for a shortcut
+
+        int find(int w) {
+            for (int i = 0; i < n; i++)
+                if (other[i] == w) return i;
+            return -1;
+        }
+
+        void add(int w, double wt, int md, int id) {
+            if (n == other.length) {
+                other = Arrays.copyOf(other, 2 * n);
+                weight = Arrays.copyOf(weight, 2 * n);
+                mid = Arrays.copyOf(mid, 2 * n);
+                edge = Arrays.copyOf(edge, 2 * n);
+            }
+            other[n] = w;
+            weight[n] = wt;
+            mid[n] = md;
+            edge[n] = id;
+            n++;
+        }
+
+        // drop the edge to w, moving the last edge into its slot
+        void remove(int w) {
+            int i = find(w);
+            if (i == -1) return;
+            n--;
+            other[i] = other[n];
+            weight[i] = weight[n];
+            mid[i] = mid[n];
+            edge[i] = edge[n];
+        }
+
+        void set(int i, double wt, int md, int id) {
+            weight[i] = wt;
+            mid[i] = md;
+            edge[i] = id;
+        }
+
+        // number of edges whose neighbor is contracted after v
+        int countAbove(int[] rank, int v) {
+            int count = 0;
+            for (int i = 0; i < n; i++)
+                if (rank[other[i]] > rank[v]) count++;
+            return count;
+        }
+
+        // copy the edges counted by countAbove() into the CSR arrays from position pos
+        void copyAbove(int[] rank, int v, int pos, int[] o, double[] wt, int[] md, int[] id) {
+            for (int i = 0; i < n; i++) {
+                if (rank[other[i]] <= rank[v]) continue;
+                o[pos] = other[i];
+                wt[pos] = weight[i];
+                md[pos] = mid[i];
+                id[pos] = edge[i];
+                pos++;
+            }
+        }
+    }
+
+    // the shrinking graph during contraction, with witness search buffers;
+    // the lists of a vertex not yet contracted only hold edges to others like it
+    private static class Builder {
+        final ArcList[] out, in;
+        final int[] deleted;            // deleted[v] = number of neighbors of v already contracted
+        final double[] witness;         // witness search distances
+        final int[] reached;            // vertices whose witness distance is set
+        int reachedCount;
+        final IndexDoubleMinPQ pq;
+
+        Builder(int V) {
+            out = new ArcList[V];
+            in = new ArcList[V];
+            for (int v = 0; v < V; v++) {
+                out[v] = new ArcList();
+                in[v] = new ArcList();
+            }
+            deleted = new int[V];
+            witness = new double[V];
+            reached = new int[V];
+            pq = new IndexDoubleMinPQ(V);
+            Arrays.fill(witness, Double.POSITIVE_INFINITY);
+        }
+
+        // add u->x unless an edge at least as short already joins them
+        void addEdge(int u, int x, double weight, int id) {
+            if (u == x) return;
+            int i = out[u].find(x);
+            if (i == -1) {
+                out[u].add(x, weight, -1, id);
+                in[x].add(u, weight, -1, id);
+            }
+            else if (weight < out[u].weight[i]) {
+                out[u].set(i, weight, -1, id);
+                in[x].set(in[x].find(u), weight, -1, id);
+            }
+        }
+
+        // add the shortcut u->v->x unless an edge at least as short already joins u and x
+        void addShortcut(int u, int v, int x, double weight) {
+            int i = out[u].find(x);
+            if (i == -1) {
+                out[u].add(x, weight, v, -1);
+                in[x].add(u, weight, v, -1);
+            }
+            else if (weight < out[u].weight[i]) {
+                out[u].set(i, weight, v, -1);
+                in[x].set(in[x].find(u), weight, v, -1);
+            }
+        }
+
+        // contract every vertex, returning rank[v] = position of v in the order
+        int[] contractAll() {
+            int V = out.length;
+            int[] rank = new int[V];
+            IndexDoubleMinPQ order = new IndexDoubleMinPQ(V);
+            for (int v = 0; v < V; v++)
+                order.insert(v, priority(v));
+            int next = 0;
+            while (!order.isEmpty()) {
+                int v = order.delMin();
+                double p = priority(v);
+                if (!order.isEmpty() && p > order.minKey()) {   // stale key, try again later
+                    order.insert(v, p);
+                    continue;
+                }
+                contract(v, false);
+                rank[v] = next++;
+                // v's own lists keep its upward edges; the neighbors forget v
+                for (int i = 0; i < out[v].n; i++) {
+                    in[out[v].other[i]].remove(v);
+                    deleted[out[v].other[i]]++;
+                }
+                for (int i = 0; i < in[v].n; i++) {
+                    out[in[v].other[i]].remove(v);
+                    deleted[in[v].other[i]]++;
+                }
+            }
+            return rank;
+        }
+
+        // edge difference plus contracted neighbors; smaller is contracted first
+        double priority(int v) {
+            return contract(v, true) - out[v].n - in[v].n + deleted[v];
+        }
+
+        // find the shortcuts that contracting v needs; add them unless simulating
+        int contract(int v, boolean simulate) {
+            int shortcuts = 0;
+            ArcList ins = in[v], outs = out[v];
+            for (int i = 0; i < ins.n; i++) {
+                int u = ins.other[i];
+                double maxOut = -1;
+                for (int j = 0; j < outs.n; j++) {
+                    int x = outs.other[j];
+                    if (x != u) maxOut = Math.max(maxOut, outs.weight[j]);
+                }
+                if (maxOut < 0) continue;
+                double limit = ins.weight[i] + maxOut;
+                witnessSearch(u, v, limit);
+                for (int j = 0; j < outs.n; j++) {
+                    int x = outs.other[j];
+                    if (x == u) continue;
+                    double via = ins.weight[i] + outs.weight[j];
+                    if (witness[x] <= via) continue;
+                    shortcuts++;
+                    if (!simulate) addShortcut(u, v, x, via);
+                }
+            }
+            return shortcuts;
+        }
+
+        // bounded Dijkstra from u in the remaining graph without v
+        void witnessSearch(int u, int v, double limit) {
+            for (int k = 0; k < reachedCount; k++)
+                witness[reached[k]] = Double.POSITIVE_INFINITY;
+            reachedCount = 0;
+            pq.clear();
+            witness[u] = 0.0;
+            reached[reachedCount++] = u;
+            pq.insert(u, 0.0);
+            int settled = 0;
+            while (!pq.isEmpty()) {
+                int y = pq.delMin();
+                if (witness[y] > limit || ++settled > WITNESS_SETTLE_LIMIT) break;
+                ArcList ys = out[y];
+                for (int j = 0; j < ys.n; j++) {
+                    int z = ys.other[j];
+                    if (z == v) continue;
+                    double dz = witness[y] + ys.weight[j];
+                    if (witness[z] > dz) {
+                        if (witness[z] == Double.POSITIVE_INFINITY) reached[reachedCount++] = z;
+                        witness[z] = dz;
+                        if (pq.contains(z)) pq.decreaseKey(z, dz);
+                        else                pq.insert(z, dz);
+                    }
+                }
+            }
+        }
+    }
+
+
+   /***************************************************************************
+    * Queries.
+    ***************************************************************************/
+
+    // run the bidirectional upward search for s->t unless it is the previous query
+    private void query(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        if (s == lastS && t == lastT) return;
+        for (int k = 0; k < touchedCount; k++) {
+            int v = touched[k];
+            distF[v] = Double.POSITIVE_INFINITY;
+            distB[v] = Double.POSITIVE_INFINITY;
+            arcF[v] = -1;
+            arcB[v] = -1;
+        }
+        touchedCount = 0;
+        pqF.clear();
+        pqB.clear();
+
+        double best = Double.POSITIVE_INFINITY;
+        meet = -1;
+        distF[s] = 0.0;
+        touched[touchedCount++] = s;
+        pqF.insert(s, 0.0);
+        if (t != s) touched[touchedCount++] = t;
+        distB[t] = 0.0;
+        pqB.insert(t, 0.0);
+        while (!pqF.isEmpty() || !pqB.isEmpty()) {
+            if (!pqF.isEmpty() && pqF.minKey() >= best) pqF.clear();
+            if (!pqB.isEmpty() && pqB.minKey() >= best) pqB.clear();
+            boolean forward;
+            if      (pqF.isEmpty()) { if (pqB.isEmpty()) break; forward = false; }
+            else if (pqB.isEmpty()) forward = true;
+            else                    forward = pqF.minKey() <= pqB.minKey();
+
+            if (forward) {
+                int v = pqF.delMin();
+                if (distF[v] + distB[v] < best) {
+                    best = distF[v] + distB[v];
+                    meet = v;
+                }
+                for (int a = upBegin[v]; a < upBegin[v+1]; a++)
+                    relax(v, a, upOther, upWeight, distF, arcF, pqF);
+            }
+            else {
+                int v = pqB.delMin();
+                if (distF[v] + distB[v] < best) {
+                    best = distF[v] + distB[v];
+                    meet = v;
+                }
+                for (int a = downBegin[v]; a < downBegin[v+1]; a++)
+                    relax(v, a, downOther, downWeight, distB, arcB, pqB);
+            }
+        }
+        lastS = s;
+        lastT = t;
+        lastPath = meet == -1 ? null : unpackPath(s, t);
+    }
+
+    // relax upward arc a leaving v for one side of the search
+    private void relax(int v, int a, int[] other, double[] weight,
+                       double[] dist, int[] arcTo, IndexDoubleMinPQ pq) {
+        int w = other[a];
+        double dw = dist[v] + weight[a];
+        if (dist[w] > dw) {
+            if (distF[w] == Double.POSITIVE_INFINITY && distB[w] == Double.POSITIVE_INFINITY)
+                touched[touchedCount++] = w;
+            dist[w] = dw;
+            arcTo[w] = a;
+            if (pq.contains(w)) pq.decreaseKey(w, dw);
+            else                pq.insert(w, dw);
+        }
+    }
+
+    // the original edges from s to meet to t, in order
+    private Queue<DirectedEdge> unpackPath(int s, int t) {
+        // forward half, collected meet -> s and then reversed
+        Stack<Integer> forward = new Stack<Integer>();
+        for (int v = meet; v != s; ) {
+            int a = arcF[v];
+            forward.push(a);
+            v = tailOfUp(a);
+        }
+        Queue<DirectedEdge> path = new Queue<DirectedEdge>();
+        for (int a : forward)
+            unpack(a, true, path);
+        // backward half: down arc a at w is other[a] -> w, walked from meet towards t
+        for (int v = meet; v != t; ) {
+            int a = arcB[v];
+            int w = headOfDown(a);
+            unpack(a, false, path);
+            v = w;
+        }
+        return path;
+    }
+
+    // vertex owning up arc a, by binary search over upBegin
+    private int tailOfUp(int a) {
+        return owner(upBegin, a);
+    }
+
+    // vertex owning down arc a, by binary search over downBegin
+    private int headOfDown(int a) {
+        return owner(downBegin, a);
+    }
+
+    private int owner(int[] begin, int a) {
+        int lo = 0, hi = V - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (begin[mid] <= a) lo = mid;
+            else                 hi = mid - 1;
+        }
+        return lo;
+    }
+
+    // append the original edges of up arc (isUp) or down arc a to path, in order
+    private void unpack(int a, boolean isUp, Queue<DirectedEdge> path) {
+        // arcs are encoded as 2a for up and 2a+1 for down; right halves are pushed first
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = isUp ? 2 * a : 2 * a + 1;
+        while (top > 0) {
+            int code = stack[--top];
+            int arc = code >>> 1;
+            boolean up = (code & 1) == 0;
+            int mid = up ? upMid[arc] : downMid[arc];
+            if (mid == -1) {
+                path.enqueue(edge(up ? upEdge[arc] : downEdge[arc]));
+                continue;
+            }
+            // u->x via mid: u->mid is a down arc of mid, mid->x is an up arc of mid
+            int u = up ? tailOfUp(arc) : downOther[arc];
+            int x = up ? upOther[arc] : headOfDown(arc);
+            if (top + 2 > stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+            stack[top++] = 2 * find(upBegin, upOther, mid, x);
+            stack[top++] = 2 * find(downBegin, downOther, mid, u) + 1;
+        }
+    }
+
+    // the arc of v whose other endpoint is w
+    private int find(int[] begin, int[] other, int v, int w) {
+        for (int a = begin[v]; a < begin[v+1]; a++)
+            if (other[a] == w) return a;
+        throw new IllegalStateException("missing arc between " + v + " and " + w);
+    }
+
+    private DirectedEdge edge(int id) {
+        return new DirectedEdge(edgeFrom[id], edgeTo[id], MediaType.of((byte) edgeType[id]),
+                                edgeBandwidth[id], edgeLength[id]);
+    }
+
+    /**
+     * Returns the number of vertices.
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of shortcut edges added by preprocessing.
+     * @return the number of shortcuts
+     */
+    public int shortcuts() {
+        int count = 0;
+        for (int mid : upMid)   if (mid != -1) count++;
+        for (int mid : downMid) if (mid != -1) count++;
+        return count;
+    }
+
+    /**
+     * Is there a path from {@code s} to {@code t}?
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return {@code true} if there is a path from {@code s} to {@code t}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        query(s, t);
+        return lastPath != null;
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code s} to {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the length of a shortest path from {@code s} to {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double dist(int s, int t) {
+        query(s, t);
+        if (lastPath == null) return Double.POSITIVE_INFINITY;
+        double dist = 0.0;
+        for (DirectedEdge e : lastPath)
+            dist += e.weight();
+        return dist;
+    }
+
+    /**
+     * Returns a shortest path from {@code s} to {@code t} made of original edges.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a shortest path from {@code s} to {@code t} as an iterable of
+     *         edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t) {
+        query(s, t);
+        return lastPath;
+    }
+
+
+   /***************************************************************************
+    * Serialization.
+    ***************************************************************************/
+
+    /**
+     * Writes this index to {@code file}. Like a {@link GraphSnapshot} the file
+     * is little endian: a header (magic, version, <em>V</em>, number of original
+     * edges, number of up arcs), the original edges as five int sections, then
+     * the up and the down arcs, each as offsets, other endpoints, middle
+     * vertices and edge ids (ints) followed by weights (doubles). The number
+     * of down arcs is the last down offset.
+     * @param  file the path of the index to create or overwrite
+     * @throws IOException if the file cannot be written
+     */
+    public void write(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            IntBuffer header = GraphSnapshot.map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).asIntBuffer();
+            header.put(MAGIC).put(VERSION).put(V).put(edgeFrom.length).put(upOther.length);
+            long pos = HEADER_BYTES;
+            for (int[] section : new int[][] { edgeFrom, edgeTo, edgeBandwidth, edgeLength, edgeType })
+                pos = GraphSnapshot.writeInts(channel, pos, section);
+            for (int[] section : new int[][] { upBegin, upOther, upMid, upEdge })
+                pos = GraphSnapshot.writeInts(channel, pos, section);
+            pos = GraphSnapshot.writeDoubles(channel, pos, upWeight);
+            for (int[] section : new int[][] { downBegin, downOther, downMid, downEdge })
+                pos = GraphSnapshot.writeInts(channel, pos, section);
+            GraphSnapshot.writeDoubles(channel, pos, downWeight);
+        }
+    }
+
+    /**
+     * Reads an index written by {@code write()}.
+     * @param  file the path of the index
+     * @return the contraction hierarchy
+     * @throws IOException if the file cannot be read, is not an index,
+     *         has an unsupported version, is truncated or holds offsets,
+     *         vertices, edge ids or media type codes that are out of range
+     */
+    public static ContractionHierarchy read(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException(file + " is not a contraction hierarchy");
+            IntBuffer header = GraphSnapshot.map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).asIntBuffer();
+            if (header.get(0) != MAGIC) throw new IOException(file + " is not a contraction hierarchy");
+            if (header.get(1) != VERSION)
+                throw new IOException(file + " has index version " + header.get(1) + ", expected " + VERSION);
+            int V = header.get(2), E = header.get(3), up = header.get(4);
+            if (V < 0 || E < 0 || up < 0) throw new IOException(file + " has a corrupt header");
+
+            long pos = HEADER_BYTES;
+            long size = pos + 20L * E + 2 * 4L * (V + 1) + 20L * up;
+            if (channel.size() < size) throw new IOException(file + " is truncated");
+            int[][] edges = new int[5][E];
+            for (int[] section : edges)
+                pos = GraphSnapshot.readInts(channel, pos, section);
+            int[][] upArcs = { new int[V + 1], new int[up], new int[up], new int[up] };
+            for (int[] section : upArcs)
+                pos = GraphSnapshot.readInts(channel, pos, section);
+            double[] upWeight = new double[up];
+            pos = GraphSnapshot.readDoubles(channel, pos, upWeight);
+            GraphSnapshot.checkRange(file, "edge from", edges[0], 0, V);
+            GraphSnapshot.checkRange(file, "edge to", edges[1], 0, V);
+            GraphSnapshot.checkRange(file, "edge type", edges[4], 0, MediaType.values().length);
+            for (int e = 0; e < E; e++)
+                if (edges[3][e] < 0)
+                    throw new IOException(file + " has negative length " + edges[3][e] + " at edge " + e);
+            GraphSnapshot.checkOffsets(file, "up offset", upArcs[0], up);
+            checkArcs(file, "up", upArcs, upWeight, V, E);
+
+            // the number of down arcs is the last down offset, V + 1 ints into the section
+            int[] downBegin = new int[V + 1];
+            pos = GraphSnapshot.readInts(channel, pos, downBegin);
+            int down = downBegin[V];
+            if (down < 0 || channel.size() != pos + 20L * down)
+                throw new IOException(file + " should be " + (pos + 20L * down) + " bytes but is " + channel.size());
+            GraphSnapshot.checkOffsets(file, "down offset", downBegin, down);
+            int[][] downArcs = { downBegin, new int[down], new int[down], new int[down] };
+            for (int i = 1; i < downArcs.length; i++)
+                pos = GraphSnapshot.readInts(channel, pos, downArcs[i]);
+            double[] downWeight = new double[down];
+            GraphSnapshot.readDoubles(channel, pos, downWeight);
+            checkArcs(file, "down", downArcs, downWeight, V, E);
+            return new ContractionHierarchy(V, edges, upArcs, upWeight, downArcs, downWeight);
+        }
+    }
+
+    // throw an IOException unless every arc read from file has its other endpoint
+    // and middle vertex (-1 for an original edge) in range, an original edge id
+    // exactly when it is not a shortcut, and a non-negative weight
+    private static void checkArcs(String file, String name, int[][] arcs, double[] weight, int V, int E)
+            throws IOException {
+        GraphSnapshot.checkRange(file, name + " other", arcs[1], 0, V);
+        GraphSnapshot.checkRange(file, name + " mid", arcs[2], -1, V);
+        GraphSnapshot.checkRange(file, name + " edge", arcs[3], -1, E);
+        for (int a = 0; a < weight.length; a++) {
+            if ((arcs[2][a] == -1) == (arcs[3][a] == -1))
+                throw new IOException(file + " has " + name + " arc " + a + " that is neither an edge nor a shortcut");
+            if (!(weight[a] >= 0))
+                throw new IOException(file + " has " + name + " arc " + a + " with weight " + weight[a]);
+        }
+    }
+
+
+   /***************************************************************************
+    * Validation.
+    ***************************************************************************/
+
+    /**
+     * Cross-checks {@code pairs} random source and target pairs against
+     * {@link DijkstraSP} on {@code G}, printing every mismatch. Distances are
+     * compared with a relative tolerance of 1e-12 since equally short paths
+     * may add up their latencies in a different order.
+     * @param  G the digraph this index was built from
+     * @param  pairs the number of random pairs to check
+     * @param  random the source of random vertices
+     * @return the number of pairs whose answers differ
+     * @throws IllegalArgumentException if {@code G} has a different number of vertices
+     */
+    public int validate(EdgeWeightedDigraph G, int pairs, Random random) {
+        if (G.V() != V) throw new IllegalArgumentException("index has " + V + " vertices, graph has " + G.V());
+        int mismatches = 0;
+        for (int i = 0; i < pairs && V > 0; i++) {
+            int s = random.nextInt(V), t = random.nextInt(V);
+            DijkstraSP sp = new DijkstraSP(G, s, t);
+            double expected = sp.distTo(t), actual = dist(s, t);
+            boolean same = sp.hasPathTo(t) == hasPath(s, t)
+                        && (expected == actual || Math.abs(expected - actual) <= 1e-12 * expected);
+            // the path must also be a connected s->t walk of exactly that length
+            if (same && lastPath != null) {
+                int v = s;
+                for (DirectedEdge e : lastPath) {
+                    if (e.from() != v) same = false;
+                    v = e.to();
+                }
+                if (v != t) same = false;
+            }
+            if (!same) {
+                mismatches++;
+                System.out.println("mismatch " + s + "->" + t + ": DijkstraSP " + expected
+                                   + ", contraction hierarchy " + actual);
+            }
+        }
+        return mismatches;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Builds an index and writes it to disk, or, given a number of pairs,
+     * reads the index back and validates it against {@link DijkstraSP}.
+     * @param args the network file, the index file and optionally the number of pairs
+     * @throws IOException if either file cannot be accessed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage: java ContractionHierarchy network_data.txt network_data.ch [pairs]");
+            return;
+        }
+        EdgeWeightedDigraph G = new NetworkLoader(args[0]).digraph();
+        if (G == null) return;
+        if (args.length == 2) {
+            ContractionHierarchy ch = new ContractionHierarchy(G);
+            ch.write(args[1]);
+            System.out.println("Wrote " + ch.V() + " vertices and " + ch.shortcuts() + " shortcuts to " + args[1]);
+        }
+        else {
+            ContractionHierarchy ch = read(args[1]);
+            int pairs = Integer.parseInt(args[2]);
+            int mismatches = ch.validate(G, pairs, new Random());
+            System.out.println(mismatches + " of " + pairs + " random pairs differ from DijkstraSP");
+        }
+    }
+}
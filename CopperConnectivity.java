@@ -0,0 +1,148 @@
+/******************************************************************************
+ *
+ *  Connectivity of the copper layer of a network, kept up to date as links
+ *  are added, with a union-find over the copper cables.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code CopperConnectivity} class answers whether the network stays
+ *  connected using only copper cables, and which copper islands (groups of
+ *  vertices joined by copper cables) it falls into.
+ *  <p>
+ *  The constructor unions the endpoints of every copper arc of a
+ *  {@link CSRGraph} in a {@link UF}, taking time proportional to
+ *  <em>E</em> &alpha;(<em>V</em>). Afterwards {@code addLink()} merges two
+ *  islands when a copper cable is added, and {@code isConnected()} and
+ *  {@code islandCount()} take constant time, while {@code connected()} and
+ *  {@code island()} take amortized time proportional to &alpha;(<em>V</em>).
+ *  Links of other media types are accepted by {@code addLink()} and ignored,
+ *  so a whole stream of topology changes can be fed through it.
+ *  <p>
+ *  Links cannot be removed; rebuild the service from the updated graph
+ *  instead. Queries compress paths inside the union-find, so a
+ *  {@code CopperConnectivity} is not thread safe.
+ */
+public class CopperConnectivity {
+    private final UF uf;
+    private final int V;
+
+    /**
+     * Joins the endpoints of every copper cable of {@code G}.
+     * @param G the CSR graph
+     */
+    public CopperConnectivity(CSRGraph G) {
+        V = G.V();
+        uf = new UF(V);
+        byte copper = MediaType.COPPER.code();
+        for (int v = 0; v < V; v++)
+            for (int a = G.begin(v); a < G.end(v); a++)
+                if (G.type(a) == copper) uf.union(v, G.target(a));
+    }
+
+    /**
+     * Records a new cable between {@code v} and {@code w}.
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @param  type the media type code of the cable, see {@link MediaType}
+     * @return {@code true} if the cable is copper and joined two islands
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public boolean addLink(int v, int w, byte type) {
+        validateVertex(v);
+        validateVertex(w);
+        if (type != MediaType.COPPER.code()) return false;
+        int before = uf.count();
+        uf.union(v, w);
+        return uf.count() < before;
+    }
+
+    /**
+     * Records a new cable.
+     * @param  e the cable
+     * @return {@code true} if the cable is copper and joined two islands
+     * @throws IllegalArgumentException unless both endpoints are between {@code 0} and {@code V-1}
+     */
+    public boolean addLink(Edge e) {
+        int v = e.either();
+        return addLink(v, e.other(v), e.getTypeCode());
+    }
+
+    /**
+     * Is every vertex reachable from every other one over copper cables alone?
+     * @return {@code true} if the copper layer forms a single island
+     */
+    public boolean isConnected() {
+        return uf.count() <= 1;
+    }
+
+    /**
+     * Are {@code v} and {@code w} joined by a path of copper cables?
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return {@code true} if {@code v} and {@code w} are on the same copper island
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public boolean connected(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        return uf.connected(v, w);
+    }
+
+    /**
+     * Returns the number of copper islands; a vertex without copper cables is
+     * an island of its own.
+     * @return the number of copper islands
+     */
+    public int islandCount() {
+        return uf.count();
+    }
+
+    /**
+     * Returns an identifier of the copper island holding {@code v}. Two
+     * vertices are on the same island exactly when their identifiers are
+     * equal; an identifier may change when {@code addLink()} merges islands.
+     * @param  v the vertex
+     * @return the island identifier, between {@code 0} and {@code V-1}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int island(int v) {
+        validateVertex(v);
+        return uf.find(v);
+    }
+
+    /**
+     * Returns the vertices of every copper island. Islands are listed in
+     * order of their smallest vertex, each one in increasing vertex order.
+     * Takes time proportional to <em>V</em> &alpha;(<em>V</em>).
+     * @return the copper islands as arrays of vertices
+     */
+    public int[][] islands() {
+        int[] root = new int[V];
+        int[] size = new int[V];
+        for (int v = 0; v < V; v++) {
+            root[v] = uf.find(v);
+            size[root[v]]++;
+        }
+        int[][] islands = new int[uf.count()][];
+        int[] index = new int[V];       // index[r] = 1 + position of root r's island, 0 if none yet
+        int[] filled = new int[uf.count()];
+        int n = 0;
+        for (int v = 0; v < V; v++) {
+            int r = root[v];
+            if (index[r] == 0) {
+                islands[n] = new int[size[r]];
+                index[r] = ++n;
+            }
+            int i = index[r] - 1;
+            islands[i][filled[i]++] = v;
+        }
+        return islands;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
@@ -10,12 +10,15 @@
  *  in an undirected graph. For versions that find the paths, see
  *  {@link DepthFirstPaths} and {@link BreadthFirstPaths}.
  *  <p>
- *  This implementation uses depth-first search.
- *  See {@link NonrecursiveDFS} for a non-recursive version.
+ *  This implementation runs one search of a {@link GraphTraversal}, which
+ *  uses an explicit int stack, so it cannot overflow the call stack on long chains.
+ *  The constructors that take a {@code GraphTraversal} reuse its buffers instead of
+ *  allocating new ones; the result then only stays valid until that traversal's next search.
  *  The constructor takes time proportional to <em>V</em> + <em>E</em>
  *  (in the worst case),
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
- *  It uses extra space (not including the graph) proportional to <em>V</em>.
+ *  Unless a traversal is passed in, it uses extra space (not including the graph)
+ *  proportional to <em>V</em>.
  *  <p>
  *  For additional documentation, see <a href="https://algs4.cs.princeton.edu/41graph">Section 4.1</a>   
  *  of <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
@@ -24,68 +27,70 @@
  *  @author Kevin Wayne
  */
 public class DepthFirstSearch {
-    private boolean[] marked;    // marked[v] = is there an s-v path?
-    private int count;           // number of vertices connected to s
+    private final GraphTraversal search;   // holds the marks of this search
+    private final int count;               // number of vertices connected to s
 
     /**
-     * Computes the vertices in graph {@code G} that are
-     * connected to the source vertex {@code s}.
-     * @param G the graph
+     * Computes the vertices in CSR graph {@code G} that are connected to the
+     * source vertex {@code s} using only arcs of media type {@code type}.
+     * @param G the CSR graph
      * @param s the source vertex
+     * @param type the media type code arcs must have, e.g. {@code MediaType.COPPER.code()}
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
-    public DepthFirstSearch(EdgeWeightedDigraph G, int s) {
-        marked = new boolean[G.V()];
-        validateVertex(s);
-        dfs(G, s);
+    public DepthFirstSearch(CSRGraph G, int s, byte type) {
+        this(new GraphTraversal(G), s, type);
     }
 
-    // constructor for depth first search of undirected network graph
-    // s --> source vertex to start traversal from
-    // params i and j used to represent vertices pairs to be removed (marked)
-    public DepthFirstSearch(NetworkGraph G, int s, int i, int j)
-    {
-        String mode = "failure";   
-        marked = new boolean[G.V()];
-        validateVertex(s);
-        marked[i] = true;
-        marked[j] = true;
-        dfs(G, s, mode);
+    /**
+     * Computes the vertices connected to the source vertex {@code s} using only
+     * arcs of media type {@code type}, with the buffers of {@code search}.
+     * @param search the traversal of the CSR graph to reuse
+     * @param s the source vertex
+     * @param type the media type code arcs must have, e.g. {@code MediaType.COPPER.code()}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DepthFirstSearch(GraphTraversal search, int s, byte type) {
+        this.search = search;
+        count = search.dfs(s, type);
     }
 
-    // depth first search from v, used on weighted directed graph, with dual way edges
-    // dfs used to check for copper connection
-    private void dfs(EdgeWeightedDigraph G, int v) {
-        count++;
-        marked[v] = true;
-        for (DirectedEdge w : G.adj(v)) {
-            if (!marked[w.other(v)] && w.getType().equals("copper")) {
-                dfs(G, w.other(v));
-            }
-        }
+    /**
+     * Computes the vertices in CSR graph {@code G} that are connected to the
+     * source vertex {@code s} once vertices {@code i} and {@code j} have failed.
+     * @param G the CSR graph
+     * @param s the source vertex
+     * @param i the first failed vertex
+     * @param j the second failed vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s, i, j < V}
+     */
+    public DepthFirstSearch(CSRGraph G, int s, int i, int j) {
+        this(new GraphTraversal(G), s, i, j);
     }
-    // depth first search from v, used for finding connection after removing every pair of vertices
-    // extra parameter, mode, to ensure there is no confusion with other dfs method, uses undirected graph
-    private void dfs(NetworkGraph G, int v, String mode)
-    {
-        count++;
-        marked[v] = true;
-        for(Edge w : G.adj(v))
-        {
-            if(!marked[w.other(v)])
-                dfs(G, w.other(v), mode);
-        }
+
+    /**
+     * Computes the vertices connected to the source vertex {@code s} once
+     * vertices {@code i} and {@code j} have failed, with the buffers of {@code search}.
+     * @param search the traversal of the CSR graph to reuse
+     * @param s the source vertex
+     * @param i the first failed vertex
+     * @param j the second failed vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s, i, j < V}
+     */
+    public DepthFirstSearch(GraphTraversal search, int s, int i, int j) {
+        this.search = search;
+        count = search.dfsWithout(s, i, j);
     }
 
     /**
      * Is there a path between the source vertex {@code s} and vertex {@code v}?
+     * Failed vertices count as marked.
      * @param v the vertex
      * @return {@code true} if there is a path, {@code false} otherwise
      * @throws IllegalArgumentException unless {@code 0 <= v < V}
      */
     public boolean marked(int v) {
-        validateVertex(v);
-        return marked[v];
+        return search.marked(v);
     }
 
     /**
@@ -96,11 +101,4 @@ public class DepthFirstSearch {
         return count;
     }
 
-    // throw an IllegalArgumentException unless {@code 0 <= v < V}
-    private void validateVertex(int v) {
-        int V = marked.length;
-        if (v < 0 || v >= V)
-            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
-    }
-
 }
@@ -30,8 +30,6 @@ public class DijkstraAllPairsSP {
      * Computes a shortest paths tree from each vertex to to every other vertex in
      * the edge-weighted digraph {@code G}.
      * @param G the edge-weighted digraph
-     * @throws IllegalArgumentException if an edge weight is negative
-     * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
     public DijkstraAllPairsSP(EdgeWeightedDigraph G) {
         all  = new DijkstraSP[G.V()];
@@ -9,13 +9,23 @@ import java.lang.*;
  *  single-source shortest paths problem in edge-weighted digraphs
  *  where the edge weights are nonnegative.
  *  <p>
- *  This implementation uses Dijkstra's algorithm with a binary heap.
+ *  This implementation uses Dijkstra's algorithm with a 4-ary heap of
+ *  primitive double keys ({@link IndexDoubleMinPQ}).
  *  The constructor takes time proportional to <em>E</em> log <em>V</em>,
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
  *  Each call to {@code distTo(int)} and {@code hasPathTo(int)} takes constant time;
  *  each call to {@code pathTo(int)} takes time proportional to the number of
  *  edges in the shortest path returned.
  *  <p>
+ *  The smallest bandwidth along each shortest path is tracked during
+ *  relaxation, so {@code bandwidthTo(int)} also takes constant time. Among
+ *  paths of exactly equal length, the one with the larger bottleneck
+ *  bandwidth is kept.
+ *  <p>
+ *  The constructors do not scan the edges for negative weights or verify
+ *  the result; {@link DirectedEdge} rejects negative lengths, and
+ *  {@link OptimalityCheck} verifies shortest-paths trees on demand.
+ *  <p>
  *  For additional documentation,    
  *  see <a href="https://algs4.cs.princeton.edu/44sp">Section 4.4</a> of    
  *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne. 
@@ -26,53 +36,158 @@ import java.lang.*;
 public class DijkstraSP {
     private double[] distTo;          // distTo[v] = distance  of shortest s->v path
     private DirectedEdge[] edgeTo;    // edgeTo[v] = last edge on shortest s->v path
-    private IndexMinPQ<Double> pq;    // priority queue of vertices
-    //int totalBandwith = 0;
+    private IndexDoubleMinPQ pq;    // priority queue of vertices
+    private CSRGraph csr;             // graph searched, when run on a CSRGraph
+    private int[] arcTo;              // arcTo[v] = id of last arc on shortest s->v path in csr
+    private int[] bandwidthTo;        // bandwidthTo[v] = smallest bandwidth on shortest s->v path
     /**
      * Computes a shortest-paths tree from the source vertex {@code s} to every other
      * vertex in the edge-weighted digraph {@code G}.
      *
      * @param  G the edge-weighted digraph
      * @param  s the source vertex
-     * @throws IllegalArgumentException if an edge weight is negative
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
     public DijkstraSP(EdgeWeightedDigraph G, int s) {
-        for (DirectedEdge e : G.edges()) {
-            if (e.weight() < 0)
-                throw new IllegalArgumentException("edge " + e + " has negative weight");
-        }
+        this(G, s, -1);
+    }
+
+    /**
+     * Computes a shortest path from the source vertex {@code s} to the target
+     * vertex {@code t} in the edge-weighted digraph {@code G}, stopping as soon
+     * as {@code t} is removed from the priority queue.
+     * Only {@code distTo(t)}, {@code hasPathTo(t)} and {@code pathTo(t)} (and the
+     * answers for vertices settled before {@code t}) are final; the distances of
+     * vertices still on the priority queue are upper bounds.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @param  t the target vertex, or {@code -1} to settle every reachable vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code t == -1} or {@code 0 <= t < V}
+     */
+    public DijkstraSP(EdgeWeightedDigraph G, int s, int t) {
+        this(G, s, t, Integer.MIN_VALUE);
+    }
 
+    /**
+     * Computes a shortest path from {@code s} to {@code t} that only uses edges
+     * with bandwidth at least {@code minBandwidth}. The other edges are skipped
+     * while scanning {@code adj(v)}, so {@code G} is not copied or rebuilt.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @param  t the target vertex, or {@code -1} to settle every reachable vertex
+     * @param  minBandwidth the smallest bandwidth an edge on the path may have
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code t == -1} or {@code 0 <= t < V}
+     */
+    public DijkstraSP(EdgeWeightedDigraph G, int s, int t, int minBandwidth) {
         distTo = new double[G.V()];
         edgeTo = new DirectedEdge[G.V()];
+        bandwidthTo = new int[G.V()];
 
         validateVertex(s);
+        if (t != -1) validateVertex(t);
 
         for (int v = 0; v < G.V(); v++)
             distTo[v] = Double.POSITIVE_INFINITY;
         distTo[s] = 0.0;
+        bandwidthTo[s] = Integer.MAX_VALUE;
 
         // relax vertices in order of distance from s
-        pq = new IndexMinPQ<Double>(G.V());
+        pq = new IndexDoubleMinPQ(G.V());
         pq.insert(s, distTo[s]);
         while (!pq.isEmpty()) {
             int v = pq.delMin();
+            if (v == t) break;      // distTo[t] can no longer improve
             for (DirectedEdge e : G.adj(v))
-                relax(e);
+                if (e.getBandwith() >= minBandwidth) relax(e);
+        }
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the CSR graph {@code G}. Edges are only materialized as
+     * {@link DirectedEdge} objects when {@code pathTo()} is called.
+     *
+     * @param  G the CSR graph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DijkstraSP(CSRGraph G, int s) {
+        this(G, s, G.latencies());
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the CSR graph {@code G}, with arc {@code a} costing {@code latency[a]}
+     * instead of its propagation latency, for example as computed by a
+     * {@link LatencyModel}. {@code distTo()} reports lengths under those costs;
+     * the edges returned by {@code pathTo()} still report their propagation latency.
+     *
+     * @param  G the CSR graph
+     * @param  s the source vertex
+     * @param  latency the nonnegative cost of every arc, indexed by arc id
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code latency} has {@code G.E()} entries
+     */
+    public DijkstraSP(CSRGraph G, int s, double[] latency) {
+        if (latency.length != G.E()) throw new IllegalArgumentException("latency array must have E entries");
+        csr = G;
+        distTo = new double[G.V()];
+        arcTo = new int[G.V()];
+        bandwidthTo = new int[G.V()];
+
+        validateVertex(s);
+
+        for (int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            arcTo[v] = -1;
         }
+        distTo[s] = 0.0;
+        bandwidthTo[s] = Integer.MAX_VALUE;
 
-        // check optimality conditions
-        assert check(G, s);
+        // relax vertices in order of distance from s
+        pq = new IndexDoubleMinPQ(G.V());
+        pq.insert(s, distTo[s]);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            for (int a = G.begin(v); a < G.end(v); a++) {
+                int w = G.target(a);
+                double dw = distTo[v] + latency[a];
+                int bw = Math.min(bandwidthTo[v], G.bandwidth(a));
+                if (distTo[w] > dw) {
+                    distTo[w] = dw;
+                    arcTo[w] = a;
+                    bandwidthTo[w] = bw;
+                    if (pq.contains(w)) pq.decreaseKey(w, dw);
+                    else                pq.insert(w, dw);
+                }
+                else if (distTo[w] == dw && bandwidthTo[w] < bw && pq.contains(w)) {
+                    arcTo[w] = a;
+                    bandwidthTo[w] = bw;
+                }
+            }
+        }
     }
 
-    // relax edge e and update pq if changed
+    // relax edge e and update pq if changed; on an exact tie keep the wider
+    // path, but only while w is unsettled so its own edges see the change
     private void relax(DirectedEdge e) {
         int v = e.from(), w = e.to();
-        if (distTo[w] > distTo[v] + e.weight()) {
-            distTo[w] = distTo[v] + e.weight();
+        double dw = distTo[v] + e.weight();
+        int bw = Math.min(bandwidthTo[v], e.getBandwith());
+        if (distTo[w] > dw) {
+            distTo[w] = dw;
+            edgeTo[w] = e;
+            bandwidthTo[w] = bw;
+            if (pq.contains(w)) pq.decreaseKey(w, dw);
+            else                pq.insert(w, dw);
+        }
+        else if (distTo[w] == dw && bandwidthTo[w] < bw && pq.contains(w)) {
             edgeTo[w] = e;
-            if (pq.contains(w)) pq.decreaseKey(w, distTo[w]);
-            else                pq.insert(w, distTo[w]);
+            bandwidthTo[w] = bw;
         }
     }
 
@@ -88,6 +203,19 @@ public class DijkstraSP {
         return distTo[v];
     }
 
+    /**
+     * Returns the smallest bandwidth of an edge on the shortest path from the
+     * source vertex {@code s} to vertex {@code v}.
+     * @param  v the destination vertex
+     * @return the bottleneck bandwidth of the path; {@code Integer.MAX_VALUE} if
+     *         {@code v} is the source, and {@code 0} if there is no such path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int bandwidthTo(int v) {
+        validateVertex(v);
+        return bandwidthTo[v];
+    }
+
     /**
      * Returns true if there is a path from the source vertex {@code s} to vertex {@code v}.
      *
@@ -110,66 +238,24 @@ public class DijkstraSP {
      * @throws IllegalArgumentException unless {@code 0 <= v < V}
      */
     public Iterable<DirectedEdge> pathTo(int v) {
-        //totalBandwith = 0;
         validateVertex(v);
         if (!hasPathTo(v)) return null;
         Stack<DirectedEdge> path = new Stack<DirectedEdge>();
-        for (DirectedEdge e = edgeTo[v]; e != null; e = edgeTo[e.from()]) {
-            //totalBandwith += e.getBandwith();
-            path.push(e);
+        if (csr != null) {
+            for (int a = arcTo[v]; a != -1; a = arcTo[csr.tail(a)])
+                path.push(csr.edge(a));
+            return path;
         }
+        for (DirectedEdge e = edgeTo[v]; e != null; e = edgeTo[e.from()])
+            path.push(e);
         return path;
     }
 
-    // check optimality conditions:
-    // (i) for all edges e:            distTo[e.to()] <= distTo[e.from()] + e.weight()
-    // (ii) for all edge e on the SPT: distTo[e.to()] == distTo[e.from()] + e.weight()
-    private boolean check(EdgeWeightedDigraph G, int s) {
-
-        // check that edge weights are nonnegative
-        for (DirectedEdge e : G.edges()) {
-            if (e.weight() < 0) {
-                System.err.println("negative edge weight detected");
-                return false;
-            }
-        }
-
-        // check that distTo[v] and edgeTo[v] are consistent
-        if (distTo[s] != 0.0 || edgeTo[s] != null) {
-            System.err.println("distTo[s] and edgeTo[s] inconsistent");
-            return false;
-        }
-        for (int v = 0; v < G.V(); v++) {
-            if (v == s) continue;
-            if (edgeTo[v] == null && distTo[v] != Double.POSITIVE_INFINITY) {
-                System.err.println("distTo[] and edgeTo[] inconsistent");
-                return false;
-            }
-        }
-
-        // check that all edges e = v->w satisfy distTo[w] <= distTo[v] + e.weight()
-        for (int v = 0; v < G.V(); v++) {
-            for (DirectedEdge e : G.adj(v)) {
-                int w = e.to();
-                if (distTo[v] + e.weight() < distTo[w]) {
-                    System.err.println("edge " + e + " not relaxed");
-                    return false;
-                }
-            }
-        }
-
-        // check that all edges e = v->w on SPT satisfy distTo[w] == distTo[v] + e.weight()
-        for (int w = 0; w < G.V(); w++) {
-            if (edgeTo[w] == null) continue;
-            DirectedEdge e = edgeTo[w];
-            int v = e.from();
-            if (w != e.to()) return false;
-            if (distTo[v] + e.weight() != distTo[w]) {
-                System.err.println("edge " + e + " on shortest path not tight");
-                return false;
-            }
-        }
-        return true;
+    // last edge on the shortest s->v path, null for the source and unreachable vertices
+    DirectedEdge edgeTo(int v) {
+        validateVertex(v);
+        if (csr == null) return edgeTo[v];
+        return arcTo[v] == -1 ? null : csr.edge(arcTo[v]);
     }
 
     // throw an IllegalArgumentException unless {@code 0 <= v < V}
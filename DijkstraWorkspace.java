@@ -0,0 +1,229 @@
+/******************************************************************************
+ *
+ *  Reusable buffers for running Dijkstra's algorithm many times over the
+ *  same CSRGraph, e.g. once per source in an all-pairs computation.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code DijkstraWorkspace} class runs single-source shortest path
+ *  searches over a {@link CSRGraph}, keeping its distance array, predecessor
+ *  arc array and {@link IndexDoubleMinPQ} between runs. Only the vertices
+ *  reached by the previous run are reset before the next one, so a run that
+ *  reaches few vertices costs nothing for the rest of the graph.
+ *  <p>
+ *  Arcs cost their propagation latency unless a latency array is given, for
+ *  example one computed by a {@link LatencyModel}.
+ *  <p>
+ *  The results of the latest run are available from {@code distTo()},
+ *  {@code arcTo()} and {@code hasPathTo()} until the next run.
+ *  A {@code DijkstraWorkspace} is not thread safe; give each thread its own.
+ */
+public class DijkstraWorkspace {
+    private final CSRGraph G;
+    private final double[] latency;       // latency[a] = cost of arc a
+    private final double[] distTo;        // distTo[v] = distance of shortest s->v path
+    private final int[] arcTo;            // arcTo[v] = last arc on shortest s->v path, -1 if none
+    private final int[] bandwidthTo;      // bandwidthTo[v] = smallest bandwidth on that path
+    private final IndexDoubleMinPQ pq;
+    private final int[] touched;          // vertices whose distTo was set by the latest run
+    private int touchedCount;
+    private int source = -1;
+
+    /**
+     * Allocates the buffers for searching {@code G}.
+     * @param G the CSR graph
+     */
+    public DijkstraWorkspace(CSRGraph G) {
+        this(G, G.latencies());
+    }
+
+    /**
+     * Allocates the buffers for searching {@code G} with arc {@code a}
+     * costing {@code latency[a]}.
+     * @param  G the CSR graph
+     * @param  latency the nonnegative cost of every arc, indexed by arc id
+     * @throws IllegalArgumentException unless {@code latency} has {@code G.E()} entries
+     */
+    public DijkstraWorkspace(CSRGraph G, double[] latency) {
+        if (latency.length != G.E()) throw new IllegalArgumentException("latency array must have E entries");
+        this.G = G;
+        this.latency = latency;
+        distTo = new double[G.V()];
+        arcTo = new int[G.V()];
+        bandwidthTo = new int[G.V()];
+        touched = new int[G.V()];
+        pq = new IndexDoubleMinPQ(G.V());
+        for (int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            arcTo[v] = -1;
+        }
+    }
+
+    /**
+     * Computes shortest paths from {@code s} to every reachable vertex.
+     * @param  s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public void run(int s) {
+        run(s, -1);
+    }
+
+    /**
+     * Computes shortest paths from {@code s}, stopping once {@code t} is settled.
+     * Only the answers for {@code t} and vertices settled before it are final.
+     * @param  s the source vertex
+     * @param  t the target vertex, or {@code -1} to settle every reachable vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public void run(int s, int t) {
+        validateVertex(s);
+        reset();
+        source = s;
+        distTo[s] = 0.0;
+        bandwidthTo[s] = Integer.MAX_VALUE;
+        touched[touchedCount++] = s;
+        pq.insert(s, 0.0);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            if (v == t) break;
+            double dv = distTo[v];
+            for (int a = G.begin(v); a < G.end(v); a++) {
+                int w = G.target(a);
+                double dw = dv + latency[a];
+                int bw = Math.min(bandwidthTo[v], G.bandwidth(a));
+                if (distTo[w] > dw) {
+                    if (distTo[w] == Double.POSITIVE_INFINITY) touched[touchedCount++] = w;
+                    distTo[w] = dw;
+                    arcTo[w] = a;
+                    bandwidthTo[w] = bw;
+                    if (pq.contains(w)) pq.decreaseKey(w, dw);
+                    else                pq.insert(w, dw);
+                }
+                else if (distTo[w] == dw && bandwidthTo[w] < bw && pq.contains(w)) {
+                    arcTo[w] = a;
+                    bandwidthTo[w] = bw;
+                }
+            }
+        }
+    }
+
+    // undo the previous run for the vertices it reached
+    private void reset() {
+        pq.clear();
+        for (int k = 0; k < touchedCount; k++) {
+            distTo[touched[k]] = Double.POSITIVE_INFINITY;
+            arcTo[touched[k]] = -1;
+            bandwidthTo[touched[k]] = 0;
+        }
+        touchedCount = 0;
+    }
+
+    /**
+     * Returns the source vertex of the latest run.
+     * @return the source vertex, {@code -1} before the first run
+     */
+    public int source() {
+        return source;
+    }
+
+    /**
+     * Returns the length of a shortest path from the latest source to {@code v}.
+     * @param  v the destination vertex
+     * @return the distance to {@code v}; {@code Double.POSITIVE_INFINITY} if not reached
+     */
+    public double distTo(int v) {
+        return distTo[v];
+    }
+
+    /**
+     * Returns the last arc on a shortest path from the latest source to {@code v}.
+     * @param  v the destination vertex
+     * @return the arc id, or {@code -1} if {@code v} is the source or not reached
+     */
+    public int arcTo(int v) {
+        return arcTo[v];
+    }
+
+    /**
+     * Returns the smallest bandwidth on the shortest path from the latest source to {@code v}.
+     * Among paths of exactly equal length the one with the larger bottleneck is kept.
+     * @param  v the destination vertex
+     * @return the bottleneck bandwidth; {@code Integer.MAX_VALUE} at the source,
+     *         {@code 0} if not reached
+     */
+    public int bandwidthTo(int v) {
+        return bandwidthTo[v];
+    }
+
+    /**
+     * Is {@code v} reachable from the latest source?
+     * @param  v the destination vertex
+     * @return {@code true} if {@code v} was reached
+     */
+    public boolean hasPathTo(int v) {
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Copies the distances of the latest run into {@code row}.
+     * @param row an array of length at least <em>V</em>
+     */
+    public void copyDistances(double[] row) {
+        System.arraycopy(distTo, 0, row, 0, distTo.length);
+    }
+
+    /**
+     * Copies the predecessor arcs of the latest run into {@code row}.
+     * @param row an array of length at least <em>V</em>
+     */
+    public void copyArcs(int[] row) {
+        System.arraycopy(arcTo, 0, row, 0, arcTo.length);
+    }
+
+    /**
+     * Writes the arcs of a shortest path from the latest source to {@code v}
+     * into {@code buffer}, in order from the source, without allocating.
+     * @param  v the destination vertex
+     * @param  buffer receives the arc ids; <em>V</em> - 1 entries always suffice
+     * @return the number of arcs on the path, or {@code -1} if there is no path
+     * @throws IllegalArgumentException if the path does not fit in {@code buffer}
+     */
+    public int pathTo(int v, int[] buffer) {
+        validateVertex(v);
+        if (!hasPathTo(v)) return -1;
+        return tracePath(G, arcTo, v, buffer);
+    }
+
+    /**
+     * Follows predecessor arcs back from {@code v} and writes them into
+     * {@code buffer} in order from the source.
+     * @param  G the graph the arcs belong to
+     * @param  arcTo arcTo[w] = last arc on the path to w, -1 at the source
+     * @param  v the destination vertex
+     * @param  buffer receives the arc ids
+     * @return the number of arcs on the path
+     * @throws IllegalArgumentException if the path does not fit in {@code buffer}
+     */
+    static int tracePath(CSRGraph G, int[] arcTo, int v, int[] buffer) {
+        int n = 0;
+        for (int a = arcTo[v]; a != -1; a = arcTo[G.tail(a)]) {
+            if (n == buffer.length)
+                throw new IllegalArgumentException("path has more than " + buffer.length + " arcs");
+            buffer[n++] = a;
+        }
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int swap = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = swap;
+        }
+        return n;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
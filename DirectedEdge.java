@@ -22,13 +22,9 @@ import java.io.*;
 public class DirectedEdge { 
     private final int source;
     private final int dest;
-    private String type;
+    private final byte type;        // media type code, see MediaType
     private int bandwith;
     private int length;
-    private int speed;
-    private final int COPPER_SPEED = 230000000;
-    private final int FIBER_SPEED = 200000000;
-    private double weight;
 
     /**
      * Initializes a directed edge from vertex {@code v} to vertex {@code w} with
@@ -37,27 +33,36 @@ public class DirectedEdge {
      * @param destVertex the head vertex
      * @throws IllegalArgumentException if either {@code v} or {@code w}
      *    is a negative integer
-     * @throws IllegalArgumentException if {@code weight} is {@code NaN}
+     * @throws IllegalArgumentException if {@code edgeLength} is negative
      */
     public DirectedEdge(int sourceVertex, int destVertex, String edgeType, int edgeBandwith, int edgeLength) 
+    {
+        this(sourceVertex, destVertex, MediaType.forName(edgeType), edgeBandwith, edgeLength);
+    }
+
+    /**
+     * Initializes a directed edge from vertex {@code v} to vertex {@code w}
+     * for a cable of media type {@code edgeType}.
+     * @param sourceVertex the tail vertex
+     * @param destVertex the head vertex
+     * @param edgeType the media type of the cable
+     * @param edgeBandwith the bandwidth of the cable
+     * @param edgeLength the length of the cable in meters
+     * @throws IllegalArgumentException if either {@code v} or {@code w}
+     *    is a negative integer
+     * @throws IllegalArgumentException if {@code edgeLength} is negative
+     */
+    public DirectedEdge(int sourceVertex, int destVertex, MediaType edgeType, int edgeBandwith, int edgeLength)
     {
         if (sourceVertex < 0) throw new IllegalArgumentException("Vertex names must be nonnegative integers");
         if (destVertex < 0) throw new IllegalArgumentException("Vertex names must be nonnegative integers");
+        if (edgeLength < 0) throw new IllegalArgumentException("Cable length must be nonnegative");
         //if (Double.isNaN(weight)) throw new IllegalArgumentException("Weight is NaN");
         source = sourceVertex;
         dest = destVertex;
-        type = edgeType;
+        type = edgeType.code();
         bandwith = edgeBandwith;
         length = edgeLength;
-        if(edgeType.equals("copper"))
-        {
-            speed = COPPER_SPEED; // if type field is copper then set speed to be copper
-        }
-        else
-        {
-            speed = FIBER_SPEED; // if type field is fiber optic then set speed to be fiber optic
-        }
-        weight = (double)length/(double)speed; // calculates weight of edges based on length/speed
     }
     public int getBandwith()
     {
@@ -65,10 +70,25 @@ public class DirectedEdge {
     }
 
     public String getType()
+    {
+        return MediaType.of(type).name();
+    }
+
+    public MediaType getMediaType()
+    {
+        return MediaType.of(type);
+    }
+
+    public byte getTypeCode()
     {
         return type;
     }
 
+    public int getLength()
+    {
+        return length;
+    }
+
     /**
      * Returns the tail vertex of the directed edge.
      * @return the tail vertex of the directed edge
@@ -98,12 +118,21 @@ public class DirectedEdge {
         else throw new IllegalArgumentException("Illegal Endpoint");
     }
 
+    /**
+     * Returns a new directed edge with the same cable data pointing the other way.
+     * @return the directed edge from {@code to()} to {@code from()}
+     */
+    public DirectedEdge reverse()
+    {
+        return new DirectedEdge(dest, source, MediaType.of(type), bandwith, length);
+    }
+
     /**
      * Returns the weight of the directed edge.
      * @return the weight of the directed edge
      */
     public double weight() {
-        return weight;
+        return MediaType.of(type).latency(length); // computed from length/speed rather than stored per edge
     }
 
     /**
@@ -0,0 +1,444 @@
+/******************************************************************************
+ *  Compilation:  javac DynamicConnectivity.java
+ *  Execution:    java DynamicConnectivity network_data.txt changes.txt
+ *
+ *  Offline connectivity under link additions and removals. Every line of
+ *  changes.txt is one of
+ *      add u v type
+ *      remove u v type
+ *      connected u v
+ *      components
+ *  and each query is answered for the whole network and for its copper links.
+ *
+ ******************************************************************************/
+import java.io.*;
+import java.util.*;
+
+/**
+ *  The {@code DynamicConnectivity} class answers connectivity queries on a
+ *  network whose cables are added and removed over time, which a {@link UF}
+ *  alone cannot do since it never splits a component.
+ *  <p>
+ *  The changes and queries are recorded first and answered together
+ *  (offline). Each cable is present during one interval of the query
+ *  sequence, from the query after it is added up to its removal. A segment
+ *  tree over the queries stores every interval in O(log <em>Q</em>) nodes,
+ *  and a depth first walk of the tree unions the cables of each node on
+ *  entry and undoes them on exit, so each leaf sees exactly the cables
+ *  present at its query. The union-find behind the walk uses union by size
+ *  without path compression, so an undo is a constant time pop of a history
+ *  stack and a find takes time proportional to log <em>V</em>.
+ *  <p>
+ *  Answering <em>Q</em> queries over <em>L</em> recorded cables takes time
+ *  proportional to (<em>L</em> log <em>Q</em> + <em>Q</em>) log <em>V</em>
+ *  and space proportional to <em>L</em> log <em>Q</em>. The answers are
+ *  computed on the first call to {@code connected(int)} or
+ *  {@code components(int)}; recording more changes or queries afterwards
+ *  makes the next such call recompute all of them.
+ *  <p>
+ *  A media type filter restricts the structure to one layer of the network:
+ *  with the code of {@link MediaType#COPPER}, cables of other types are
+ *  ignored, which answers copper-only connectivity; with {@code ANY_TYPE}
+ *  every cable counts.
+ */
+public class DynamicConnectivity {
+    public static final int ANY_TYPE = -1;   // count cables of every media type
+
+    private final int V;
+    private final int type;                 // media type code cables must have, or ANY_TYPE
+
+    // cables in order of addition; cable i is present for queries start[i] .. end[i]-1
+    private int[] from, to, start, end;
+    private int links;
+    private final HashMap<Long, ArrayDeque<Integer>> open;   // endpoints -> present cables, latest last
+
+    // queries in order; queryV[q] == -1 asks for the number of components
+    private int[] queryV, queryW;
+    private int queries;
+    private int[] answer;                   // 1 or 0 for connectivity queries, else the count
+    private boolean solved;
+
+    /**
+     * Initializes an empty network with {@code V} vertices in which every
+     * media type counts.
+     * @param  V the number of vertices
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public DynamicConnectivity(int V) {
+        this(V, ANY_TYPE);
+    }
+
+    /**
+     * Initializes an empty network with {@code V} vertices that only counts
+     * cables of media type {@code type}.
+     * @param  V the number of vertices
+     * @param  type the media type code cables must have, or {@code ANY_TYPE}
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public DynamicConnectivity(int V, int type) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        this.V = V;
+        this.type = type;
+        from = new int[16];
+        to = new int[16];
+        start = new int[16];
+        end = new int[16];
+        queryV = new int[16];
+        queryW = new int[16];
+        open = new HashMap<Long, ArrayDeque<Integer>>();
+    }
+
+    /**
+     * Starts from the cables of {@code G}, counting only those of media type
+     * {@code type}.
+     * @param  G the undirected network graph
+     * @param  type the media type code cables must have, or {@code ANY_TYPE}
+     */
+    public DynamicConnectivity(NetworkGraph G, int type) {
+        this(G.V(), type);
+        for (Edge e : G.edges())
+            addLink(e);
+    }
+
+    /**
+     * Records a new cable between {@code v} and {@code w}; it is present for
+     * every query recorded afterwards until it is removed.
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @param  mediaType the media type code of the cable
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public void addLink(int v, int w, byte mediaType) {
+        validateVertex(v);
+        validateVertex(w);
+        if (type != ANY_TYPE && mediaType != type) return;
+        if (links == from.length) {
+            from = Arrays.copyOf(from, 2 * links);
+            to = Arrays.copyOf(to, 2 * links);
+            start = Arrays.copyOf(start, 2 * links);
+            end = Arrays.copyOf(end, 2 * links);
+        }
+        from[links] = v;
+        to[links] = w;
+        start[links] = queries;
+        end[links] = -1;
+        ArrayDeque<Integer> present = open.get(key(v, w));
+        if (present == null) {
+            present = new ArrayDeque<Integer>();
+            open.put(key(v, w), present);
+        }
+        present.addLast(links++);
+        solved = false;
+    }
+
+    /**
+     * Records a new cable.
+     * @param  e the cable
+     * @throws IllegalArgumentException unless both endpoints are between {@code 0} and {@code V-1}
+     */
+    public void addLink(Edge e) {
+        int v = e.either();
+        addLink(v, e.other(v), e.getTypeCode());
+    }
+
+    /**
+     * Records the removal of a cable between {@code v} and {@code w}; it is
+     * absent from every query recorded afterwards. When there are parallel
+     * cables, one of them is removed.
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @param  mediaType the media type code of the cable
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if no counted cable joins {@code v} and {@code w}
+     */
+    public void removeLink(int v, int w, byte mediaType) {
+        validateVertex(v);
+        validateVertex(w);
+        if (type != ANY_TYPE && mediaType != type) return;
+        ArrayDeque<Integer> present = open.get(key(v, w));
+        if (present == null || present.isEmpty())
+            throw new IllegalArgumentException("there is no link between " + v + " and " + w);
+        end[present.removeLast()] = queries;
+        if (present.isEmpty()) open.remove(key(v, w));
+        solved = false;
+    }
+
+    /**
+     * Records the removal of a cable.
+     * @param  e the cable
+     * @throws IllegalArgumentException unless both endpoints are between {@code 0} and {@code V-1}
+     * @throws IllegalArgumentException if no counted cable joins its endpoints
+     */
+    public void removeLink(Edge e) {
+        int v = e.either();
+        removeLink(v, e.other(v), e.getTypeCode());
+    }
+
+    // the same key for v-w and w-v
+    private static long key(int v, int w) {
+        return ((long) Math.min(v, w) << 32) | Math.max(v, w);
+    }
+
+    /**
+     * Records the question whether {@code v} and {@code w} are connected
+     * after the changes recorded so far.
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return the query id, to pass to {@code connected(int)}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public int queryConnected(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        return addQuery(v, w);
+    }
+
+    /**
+     * Records the question how many connected components there are after
+     * the changes recorded so far.
+     * @return the query id, to pass to {@code components(int)}
+     */
+    public int queryComponents() {
+        return addQuery(-1, -1);
+    }
+
+    private int addQuery(int v, int w) {
+        if (queries == queryV.length) {
+            queryV = Arrays.copyOf(queryV, 2 * queries);
+            queryW = Arrays.copyOf(queryW, 2 * queries);
+        }
+        queryV[queries] = v;
+        queryW[queries] = w;
+        solved = false;
+        return queries++;
+    }
+
+    /**
+     * Returns the number of queries recorded so far.
+     * @return the number of queries
+     */
+    public int queries() {
+        return queries;
+    }
+
+    /**
+     * Answers a query recorded with {@code queryConnected()}.
+     * @param  query the query id
+     * @return {@code true} if the two vertices were connected at that point
+     * @throws IllegalArgumentException unless {@code query} was returned by {@code queryConnected()}
+     */
+    public boolean connected(int query) {
+        validateQuery(query);
+        if (queryV[query] == -1) throw new IllegalArgumentException("query " + query + " counts components");
+        solve();
+        return answer[query] == 1;
+    }
+
+    /**
+     * Answers a query recorded with {@code queryComponents()}.
+     * @param  query the query id
+     * @return the number of connected components at that point
+     * @throws IllegalArgumentException unless {@code query} was returned by {@code queryComponents()}
+     */
+    public int components(int query) {
+        validateQuery(query);
+        if (queryV[query] != -1) throw new IllegalArgumentException("query " + query + " asks for connectivity");
+        solve();
+        return answer[query];
+    }
+
+    // answer every query with a walk of the segment tree over the query sequence
+    private void solve() {
+        if (solved) return;
+        answer = new int[queries];
+        if (queries > 0) {
+            // assign each cable interval to tree nodes; node n has children 2n and 2n+1
+            int[] nodeOf = new int[16], linkOf = new int[16];
+            int pairs = 0;
+            int[] stackNode = new int[64], stackLo = new int[64], stackHi = new int[64];
+            for (int i = 0; i < links; i++) {
+                int l = start[i], r = end[i] == -1 ? queries : end[i];
+                if (l >= r) continue;
+                int top = 0;
+                stackNode[top] = 1; stackLo[top] = 0; stackHi[top] = queries; top++;
+                while (top > 0) {
+                    top--;
+                    int node = stackNode[top], lo = stackLo[top], hi = stackHi[top];
+                    if (r <= lo || hi <= l) continue;
+                    if (l <= lo && hi <= r) {
+                        if (pairs == nodeOf.length) {
+                            nodeOf = Arrays.copyOf(nodeOf, 2 * pairs);
+                            linkOf = Arrays.copyOf(linkOf, 2 * pairs);
+                        }
+                        nodeOf[pairs] = node;
+                        linkOf[pairs++] = i;
+                        continue;
+                    }
+                    int mid = (lo + hi) >>> 1;
+                    stackNode[top] = 2 * node;     stackLo[top] = lo;  stackHi[top] = mid; top++;
+                    stackNode[top] = 2 * node + 1; stackLo[top] = mid; stackHi[top] = hi;  top++;
+                }
+            }
+
+            // group the cables by node: those of node n are item[begin[n]] .. item[begin[n+1]-1]
+            int nodes = 4 * queries;
+            int[] begin = new int[nodes + 1];
+            for (int k = 0; k < pairs; k++)
+                begin[nodeOf[k] + 1]++;
+            for (int n = 0; n < nodes; n++)
+                begin[n + 1] += begin[n];
+            int[] next = Arrays.copyOf(begin, nodes);
+            int[] item = new int[pairs];
+            for (int k = 0; k < pairs; k++)
+                item[next[nodeOf[k]]++] = linkOf[k];
+
+            visit(1, 0, queries, begin, item, new RollbackUF(V));
+        }
+        solved = true;
+    }
+
+    // union the cables of node, answer the queries below it, then undo the unions
+    private void visit(int node, int lo, int hi, int[] begin, int[] item, RollbackUF uf) {
+        int mark = uf.mark();
+        for (int k = begin[node]; k < begin[node + 1]; k++)
+            uf.union(from[item[k]], to[item[k]]);
+        if (hi - lo == 1) {
+            if (queryV[lo] == -1) answer[lo] = uf.count();
+            else                  answer[lo] = uf.find(queryV[lo]) == uf.find(queryW[lo]) ? 1 : 0;
+        }
+        else {
+            int mid = (lo + hi) >>> 1;
+            visit(2 * node, lo, mid, begin, item, uf);
+            visit(2 * node + 1, mid, hi, begin, item, uf);
+        }
+        uf.rollback(mark);
+    }
+
+    // union-find by size whose unions can be undone in reverse order
+    private static class RollbackUF {
+        private final int[] parent, size;
+        private final int[] history;        // roots attached under another root, latest last
+        private int top, count;
+
+        RollbackUF(int n) {
+            parent = new int[n];
+            size = new int[n];
+            history = new int[n];
+            count = n;
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        }
+
+        int find(int p) {
+            while (p != parent[p])
+                p = parent[p];
+            return p;
+        }
+
+        void union(int p, int q) {
+            int rootP = find(p), rootQ = find(q);
+            if (rootP == rootQ) return;
+            if (size[rootP] > size[rootQ]) {
+                int swap = rootP;
+                rootP = rootQ;
+                rootQ = swap;
+            }
+            parent[rootP] = rootQ;
+            size[rootQ] += size[rootP];
+            history[top++] = rootP;
+            count--;
+        }
+
+        int mark() {
+            return top;
+        }
+
+        // undo every union made since mark() returned m
+        void rollback(int m) {
+            while (top > m) {
+                int p = history[--top];
+                size[parent[p]] -= size[p];
+                parent[p] = p;
+                count++;
+            }
+        }
+
+        int count() {
+            return count;
+        }
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= q < queries}
+    private void validateQuery(int q) {
+        if (q < 0 || q >= queries)
+            throw new IllegalArgumentException("query " + q + " is not between 0 and " + (queries-1));
+    }
+
+    /**
+     * Replays a file of link changes against a network and answers its
+     * connectivity queries for all links and for copper links only.
+     * @param args the network file and the changes file
+     * @throws IOException if either file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java DynamicConnectivity network_data.txt changes.txt");
+            return;
+        }
+        NetworkGraph G = new NetworkLoader(args[0]).graph();
+        if (G == null) return;
+        DynamicConnectivity all = new DynamicConnectivity(G, ANY_TYPE);
+        DynamicConnectivity copper = new DynamicConnectivity(G, MediaType.COPPER.code());
+
+        ArrayList<String> asked = new ArrayList<String>();
+        BufferedReader in = new BufferedReader(new FileReader(args[1]));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.trim().split("\\s+");
+                if (f[0].isEmpty()) continue;
+                if (f[0].equals("add") || f[0].equals("remove")) {
+                    int v = Integer.parseInt(f[1]), w = Integer.parseInt(f[2]);
+                    byte code = MediaType.forName(f[3]).code();
+                    if (f[0].equals("add")) {
+                        all.addLink(v, w, code);
+                        copper.addLink(v, w, code);
+                    }
+                    else {
+                        all.removeLink(v, w, code);
+                        copper.removeLink(v, w, code);
+                    }
+                }
+                else if (f[0].equals("connected")) {
+                    all.queryConnected(Integer.parseInt(f[1]), Integer.parseInt(f[2]));
+                    copper.queryConnected(Integer.parseInt(f[1]), Integer.parseInt(f[2]));
+                    asked.add(f[1] + " " + f[2]);
+                }
+                else if (f[0].equals("components")) {
+                    all.queryComponents();
+                    copper.queryComponents();
+                    asked.add(null);
+                }
+                else throw new IOException("unknown change: " + line);
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        for (int q = 0; q < asked.size(); q++) {
+            if (asked.get(q) == null)
+                System.out.println("components: " + all.components(q) + ", copper islands: " + copper.components(q));
+            else
+                System.out.println(asked.get(q) + " connected: " + all.connected(q) + ", over copper: " + copper.connected(q));
+        }
+    }
+}
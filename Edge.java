@@ -8,30 +8,25 @@ public class Edge
 {
     private int source;
     private int dest;
-    private String type;
+    private byte type; // media type code, see MediaType
     private int bandwith;
     private int length;
-    private int speed;
-    private final int COPPER_SPEED = 230000000;
-    private final int FIBER_SPEED = 200000000;
-    private double weight;
 
     public Edge(int sourceVertex, int destVertex, String edgeType, int edgeBandwith, int edgeLength)
     {
+        this(sourceVertex, destVertex, MediaType.forName(edgeType), edgeBandwith, edgeLength);
+    }
+
+    // edgeType decides the propagation speed, so new media types need no changes here
+    // throws IllegalArgumentException if edgeLength is negative, like DirectedEdge
+    public Edge(int sourceVertex, int destVertex, MediaType edgeType, int edgeBandwith, int edgeLength)
+    {
+        if (edgeLength < 0) throw new IllegalArgumentException("Cable length must be nonnegative");
         source = sourceVertex;
         dest = destVertex;
-        type = edgeType;
+        type = edgeType.code();
         bandwith = edgeBandwith;
         length = edgeLength;
-        if(edgeType.equals("copper"))
-        {
-            speed = COPPER_SPEED; // if type field is copper then set speed to be copper
-        }
-        else
-        {
-            speed = FIBER_SPEED; // if type field is fiber optic then set speed to be fiber optic
-        }
-        weight = (double)length/(double)speed; // calculates weight of edges based on length/speed
     }
     public int getSource()
     {
@@ -42,6 +37,14 @@ public class Edge
         return dest;
     }
     public String getType()
+    {
+        return MediaType.of(type).name();
+    }
+    public MediaType getMediaType()
+    {
+        return MediaType.of(type);
+    }
+    public byte getTypeCode()
     {
         return type;
     }
@@ -86,7 +89,7 @@ public class Edge
      * @return the weight of the directed edge
      */
     public double weight() {
-        return weight;
+        return MediaType.of(type).latency(length); // computed from length/speed rather than stored per edge
     }
 
     /**
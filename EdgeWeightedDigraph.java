@@ -6,6 +6,7 @@
  *  Also modified
  ******************************************************************************/
 import java.util.*;
+import java.util.function.Consumer;
 import java.io.*;
 import java.lang.*;
 /**
@@ -40,53 +41,20 @@ public class EdgeWeightedDigraph {
     private int[] indegree;             // indegree[v] = indegree of vertex v
     
 
-    // constructor for making dual way Digraph from command line specified file
-    public EdgeWeightedDigraph(String file) throws IOException
-    {
-        makeGraph(file);
-    }
-
-    private void makeGraph(String file) throws IOException
-    {
-        if(file == null)
-        {
-            System.out.println("You provided no file for inputing network data");
-            return;
-        }
-        String edgeInfo;
-        String[] organizeEdgeInfo;
-        BufferedReader readFile; 
-        try 
-        {
-            readFile = new BufferedReader(new FileReader(file));
-        } 
-        catch (FileNotFoundException e) 
-        {
-            System.out.println("This file was not found!");
-            return;
-        }
-        numVertices = Integer.parseInt(readFile.readLine());
-        this.indegree = new int[numVertices];
-        adjacencyList = new DirectedEdgeList[numVertices];
-        for(int i = 0; i < adjacencyList.length; i++)
-            adjacencyList[i] = new DirectedEdgeList();
-        while(true)
-        {
-            edgeInfo = readFile.readLine();
-            if(edgeInfo == null)
-                break;
-            organizeEdgeInfo = edgeInfo.split(" ");
-            int vertexSource = Integer.parseInt(organizeEdgeInfo[0]);
-            int vertexDest = Integer.parseInt(organizeEdgeInfo[1]);
-            String type = organizeEdgeInfo[2];
-            int bandwith = Integer.parseInt(organizeEdgeInfo[3]);
-            int length =  Integer.parseInt(organizeEdgeInfo[4]);
-
-            addEdge(new DirectedEdge(vertexSource, vertexDest, type, bandwith, length));
-            addEdge(new DirectedEdge(vertexDest, vertexSource, type, bandwith, length));
-        }
-        readFile.close();
-        
+    /**
+     * Initializes an empty edge-weighted digraph with {@code V} vertices and 0 edges.
+     *
+     * @param  V the number of vertices
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public EdgeWeightedDigraph(int V) {
+        if (V < 0) throw new IllegalArgumentException("Number of vertices in a Digraph must be nonnegative");
+        this.numVertices = V;
+        this.E = 0;
+        this.indegree = new int[V];
+        adjacencyList = new DirectedEdgeList[V];
+        for (int v = 0; v < V; v++)
+            adjacencyList[v] = new DirectedEdgeList();
     }
 
     /**
@@ -167,26 +135,65 @@ public class EdgeWeightedDigraph {
         return adjacencyList[v].edgeDirectedListAtV();
     }
 
+    /**
+     * Returns the reverse of this digraph: every edge {@code v->w} becomes {@code w->v}.
+     *
+     * @return the reverse of this edge-weighted digraph
+     */
+    public EdgeWeightedDigraph reverse() {
+        EdgeWeightedDigraph reverse = new EdgeWeightedDigraph(numVertices);
+        for (int v = 0; v < numVertices; v++)
+            for (DirectedEdge e : adj(v))
+                reverse.addEdge(e.reverse());
+        return reverse;
+    }
+
     /**
      * Returns all directed edges in this edge-weighted digraph.
      * To iterate over the edges in this edge-weighted digraph, use foreach notation:
      * {@code for (DirectedEdge e : G.edges())}.
+     * The iterable is a view over the adjacency lists, in vertex order; no edges
+     * are copied, and edges added later show up in iterators created afterwards.
      *
      * @return all edges in this edge-weighted digraph, as an iterable
      */
     public Iterable<DirectedEdge> edges() {
-        LinkedList<DirectedEdge> list = new LinkedList<DirectedEdge>();
-        for (int v = 0; v < numVertices; v++) {
-            {
-                ListIterator<DirectedEdge> iterate = adj(v).listIterator(0);
-                while(iterate.hasNext())
-                {
-                    list.add(iterate.next());
-                }
+        return new Iterable<DirectedEdge>() {
+            public Iterator<DirectedEdge> iterator() {
+                return new EdgeIterator();
             }
+        };
+    }
+
+    // walks the adjacency lists one after the other
+    private class EdgeIterator implements Iterator<DirectedEdge> {
+        private int v = 0;
+        private Iterator<DirectedEdge> current = Collections.<DirectedEdge>emptyIterator();
+
+        public boolean hasNext() {
+            while (!current.hasNext() && v < numVertices)
+                current = adjacencyList[v++].edgeDirectedListAtV().iterator();
+            return current.hasNext();
+        }
+
+        public DirectedEdge next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return current.next();
         }
-        return list;
     }
+
+    /**
+     * Calls {@code action} on every directed edge in this edge-weighted digraph,
+     * in the order {@code edges()} returns them, without creating an iterable.
+     *
+     * @param  action the operation to perform on each edge
+     */
+    public void forEachEdge(Consumer<? super DirectedEdge> action) {
+        for (int v = 0; v < numVertices; v++)
+            for (DirectedEdge e : adjacencyList[v].edgeDirectedListAtV())
+                action.accept(e);
+    }
+
     /**
      * Returns a string representation of this edge-weighted digraph.
      *
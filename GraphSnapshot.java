@@ -0,0 +1,224 @@
+/******************************************************************************
+ *  Compilation:  javac GraphSnapshot.java
+ *  Execution:    java GraphSnapshot network_data.txt network_data.snap
+ *
+ *  Compact binary snapshot of a CSRGraph. Written once from a text network
+ *  data file, then restored with FileChannel.map and bulk array copies.
+ *
+ ******************************************************************************/
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ *  The {@code GraphSnapshot} class reads and writes {@link CSRGraph} snapshots.
+ *  A snapshot is little endian and laid out as
+ *  <ul>
+ *  <li> header: magic {@code "NETG"}, format version, <em>V</em>, <em>E</em> (4 ints)
+ *  <li> offsets: <em>V</em> + 1 ints
+ *  <li> targets: <em>E</em> ints
+ *  <li> lengths: <em>E</em> ints
+ *  <li> bandwidths: <em>E</em> ints
+ *  <li> media types: <em>E</em> bytes
+ *  </ul>
+ *  where <em>E</em> counts arcs, so every cable appears twice. Latencies are
+ *  not stored; they are recomputed from length and media type while loading.
+ *  Reading maps each section and copies it into the graph's arrays without
+ *  any parsing, taking time proportional to the file size.
+ */
+public class GraphSnapshot {
+    public static final int MAGIC = 0x4754454E;        // "NETG" read as a little endian int
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int CHUNK = 1 << 28;          // max elements mapped at once
+
+    // static methods only
+    private GraphSnapshot() { }
+
+    /**
+     * Is {@code file} a graph snapshot (as opposed to a text network data file)?
+     * @param  file the path of the file
+     * @return {@code true} if the file starts with the snapshot magic number
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isSnapshot(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) return false;
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes {@code G} to {@code file} in snapshot format.
+     * @param  G the CSR graph
+     * @param  file the path of the snapshot to create or overwrite
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CSRGraph G, String file) throws IOException {
+        int V = G.V(), E = G.E();
+        long size = HEADER_BYTES + 4L * (V + 1) + 13L * E;
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            IntBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).asIntBuffer();
+            header.put(MAGIC).put(VERSION).put(V).put(E);
+
+            long pos = HEADER_BYTES;
+            for (int start = 0; start <= V; start += CHUNK) {
+                int n = Math.min(CHUNK, V + 1 - start);
+                IntBuffer out = map(channel, FileChannel.MapMode.READ_WRITE, pos, 4L * n).asIntBuffer();
+                for (int v = start; v < start + n; v++) out.put(v < V ? G.begin(v) : G.end(V - 1));
+                pos += 4L * n;
+            }
+            for (int section = 0; section < 3; section++) {
+                for (int start = 0; start < E; start += CHUNK) {
+                    int n = Math.min(CHUNK, E - start);
+                    IntBuffer out = map(channel, FileChannel.MapMode.READ_WRITE, pos, 4L * n).asIntBuffer();
+                    for (int a = start; a < start + n; a++) {
+                        if      (section == 0) out.put(G.target(a));
+                        else if (section == 1) out.put(G.length(a));
+                        else                   out.put(G.bandwidth(a));
+                    }
+                    pos += 4L * n;
+                }
+            }
+            for (int start = 0; start < E; start += CHUNK) {
+                int n = Math.min(CHUNK, E - start);
+                ByteBuffer out = map(channel, FileChannel.MapMode.READ_WRITE, pos, n);
+                for (int a = start; a < start + n; a++) out.put(G.type(a));
+                pos += n;
+            }
+            if (pos != size) throw new IllegalStateException("wrote " + pos + " bytes, expected " + size);
+        }
+    }
+
+    /**
+     * Restores the CSR graph stored in the snapshot {@code file}.
+     * @param  file the path of the snapshot
+     * @return the CSR graph
+     * @throws IOException if the file cannot be read, is not a snapshot,
+     *         has an unsupported version, is truncated or holds offsets,
+     *         vertices or media type codes that are out of range
+     */
+    public static CSRGraph read(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) throw new IOException(file + " is not a graph snapshot");
+            IntBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).asIntBuffer();
+            if (header.get(0) != MAGIC) throw new IOException(file + " is not a graph snapshot");
+            if (header.get(1) != VERSION)
+                throw new IOException(file + " has snapshot version " + header.get(1) + ", expected " + VERSION);
+            int V = header.get(2), E = header.get(3);
+            long size = HEADER_BYTES + 4L * (V + 1) + 13L * E;
+            if (V < 0 || E < 0 || channel.size() != size)
+                throw new IOException(file + " should be " + size + " bytes but is " + channel.size());
+
+            long pos = HEADER_BYTES;
+            int[] offset = new int[V + 1];
+            pos = readInts(channel, pos, offset);
+            int[] target = new int[E];
+            pos = readInts(channel, pos, target);
+            int[] length = new int[E];
+            pos = readInts(channel, pos, length);
+            int[] bandwidth = new int[E];
+            pos = readInts(channel, pos, bandwidth);
+            byte[] type = new byte[E];
+            for (int start = 0; start < E; start += CHUNK) {
+                int n = Math.min(CHUNK, E - start);
+                map(channel, FileChannel.MapMode.READ_ONLY, pos, n).get(type, start, n);
+                pos += n;
+            }
+            checkOffsets(file, "offset", offset, E);
+            checkRange(file, "target", target, 0, V);
+            int types = MediaType.values().length;
+            for (int a = 0; a < E; a++) {
+                if (type[a] < 0 || type[a] >= types)
+                    throw new IOException(file + " has unknown media type code " + type[a] + " at arc " + a);
+                if (length[a] < 0)
+                    throw new IOException(file + " has negative length " + length[a] + " at arc " + a);
+            }
+            return new CSRGraph(V, offset, target, bandwidth, length, type);
+        }
+    }
+
+    // throw an IOException unless offset starts at 0, never decreases and ends at arcs
+    static void checkOffsets(String file, String section, int[] offset, int arcs) throws IOException {
+        if (offset[0] != 0)
+            throw new IOException(file + " has " + section + "[0] = " + offset[0] + ", expected 0");
+        for (int v = 1; v < offset.length; v++)
+            if (offset[v] < offset[v-1])
+                throw new IOException(file + " has decreasing " + section + " at index " + v);
+        if (offset[offset.length - 1] != arcs)
+            throw new IOException(file + " has " + section + " ending at " + offset[offset.length - 1] + ", expected " + arcs);
+    }
+
+    // throw an IOException unless lo <= a[i] < hi for every i
+    static void checkRange(String file, String section, int[] a, int lo, int hi) throws IOException {
+        for (int i = 0; i < a.length; i++)
+            if (a[i] < lo || a[i] >= hi)
+                throw new IOException(file + " has " + section + "[" + i + "] = " + a[i]
+                                      + ", not between " + lo + " and " + (hi - 1));
+    }
+
+    // bulk copy dst.length ints starting at byte pos, returning the position after them
+    static long readInts(FileChannel channel, long pos, int[] dst) throws IOException {
+        for (int start = 0; start < dst.length; start += CHUNK) {
+            int n = Math.min(CHUNK, dst.length - start);
+            map(channel, FileChannel.MapMode.READ_ONLY, pos, 4L * n).asIntBuffer().get(dst, start, n);
+            pos += 4L * n;
+        }
+        return pos;
+    }
+
+    // bulk copy src into the file starting at byte pos, returning the position after it
+    static long writeInts(FileChannel channel, long pos, int[] src) throws IOException {
+        for (int start = 0; start < src.length; start += CHUNK) {
+            int n = Math.min(CHUNK, src.length - start);
+            map(channel, FileChannel.MapMode.READ_WRITE, pos, 4L * n).asIntBuffer().put(src, start, n);
+            pos += 4L * n;
+        }
+        return pos;
+    }
+
+    // bulk copy dst.length doubles starting at byte pos, returning the position after them;
+    // half as many doubles as ints are mapped at once to stay under 2 GB per mapping
+    static long readDoubles(FileChannel channel, long pos, double[] dst) throws IOException {
+        for (int start = 0; start < dst.length; start += CHUNK / 2) {
+            int n = Math.min(CHUNK / 2, dst.length - start);
+            map(channel, FileChannel.MapMode.READ_ONLY, pos, 8L * n).asDoubleBuffer().get(dst, start, n);
+            pos += 8L * n;
+        }
+        return pos;
+    }
+
+    // bulk copy src into the file starting at byte pos, returning the position after it
+    static long writeDoubles(FileChannel channel, long pos, double[] src) throws IOException {
+        for (int start = 0; start < src.length; start += CHUNK / 2) {
+            int n = Math.min(CHUNK / 2, src.length - start);
+            map(channel, FileChannel.MapMode.READ_WRITE, pos, 8L * n).asDoubleBuffer().put(src, start, n);
+            pos += 8L * n;
+        }
+        return pos;
+    }
+
+    static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long pos, long size)
+            throws IOException {
+        return channel.map(mode, pos, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Converts a text network data file into a snapshot.
+     * @param args the text file and the snapshot file to write
+     * @throws IOException if either file cannot be accessed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java GraphSnapshot network_data.txt network_data.snap");
+            return;
+        }
+        CSRGraph G = new CSRGraph(new NetworkDataParser(args[0]));
+        write(G, args[1]);
+        System.out.println("Wrote " + G.V() + " vertices and " + G.E() + " arcs to " + args[1]);
+    }
+}
@@ -0,0 +1,178 @@
+/******************************************************************************
+ *
+ *  Reusable, non-recursive depth first and breadth first search over a
+ *  CSRGraph. Backed by a primitive int stack/queue and an epoch-stamped
+ *  visited array, so starting a new search costs O(1) instead of O(V).
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code GraphTraversal} class runs repeated searches over one
+ *  {@link CSRGraph} without allocating per search and without recursion,
+ *  so path-like topologies with any number of vertices cannot overflow the
+ *  call stack.
+ *  <p>
+ *  Vertex <em>v</em> counts as visited in the current search when
+ *  {@code stamp[v] == epoch}. Each search increments {@code epoch}, which
+ *  implicitly clears every mark; the stamps are only rewritten when the
+ *  epoch counter wraps around.
+ *  Vertices are marked when pushed, so the stack never holds more than
+ *  <em>V</em> entries. A search takes time proportional to the number of
+ *  vertices and arcs it reaches.
+ *  <p>
+ *  A {@code GraphTraversal} is not thread safe; give each thread its own.
+ */
+public class GraphTraversal {
+    public static final int ANY_TYPE = -1;   // follow arcs of every media type
+
+    private final CSRGraph G;
+    private final int[] stamp;    // stamp[v] == epoch iff v visited in the current search
+    private final int[] stack;    // vertices still to scan; used as a queue by bfs
+    private int epoch;
+    private int count;            // vertices reached by the last search
+
+    /**
+     * Allocates the search buffers for {@code G}.
+     * @param G the CSR graph
+     */
+    public GraphTraversal(CSRGraph G) {
+        this.G = G;
+        stamp = new int[G.V()];
+        stack = new int[G.V()];
+        reset();
+    }
+
+    /**
+     * Forgets every visited mark in constant time.
+     */
+    public void reset() {
+        if (epoch == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(stamp, 0);
+            epoch = 0;
+        }
+        epoch++;
+        count = 0;
+    }
+
+    /**
+     * Marks vertex {@code v} as visited in the current search, so later
+     * searches since the last {@code reset()} treat it as removed.
+     * @param v the vertex
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public void exclude(int v) {
+        validateVertex(v);
+        stamp[v] = epoch;
+    }
+
+    /**
+     * Depth first search from {@code s} over every arc, after a {@code reset()}.
+     * @param  s the source vertex
+     * @return the number of vertices reached from {@code s}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public int dfs(int s) {
+        reset();
+        return search(s, ANY_TYPE, false);
+    }
+
+    /**
+     * Depth first search from {@code s} using only arcs of media type {@code type},
+     * after a {@code reset()}.
+     * @param  s the source vertex
+     * @param  type the media type code to follow, or {@code ANY_TYPE}
+     * @return the number of vertices reached from {@code s}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public int dfs(int s, int type) {
+        reset();
+        return search(s, type, false);
+    }
+
+    /**
+     * Depth first search from {@code s} as if vertices {@code i} and {@code j}
+     * had failed, after a {@code reset()}.
+     * @param  s the source vertex
+     * @param  i the first failed vertex
+     * @param  j the second failed vertex
+     * @return the number of vertices reached from {@code s}
+     * @throws IllegalArgumentException unless {@code 0 <= s, i, j < V}
+     */
+    public int dfsWithout(int s, int i, int j) {
+        reset();
+        exclude(i);
+        exclude(j);
+        return search(s, ANY_TYPE, false);
+    }
+
+    /**
+     * Breadth first search from {@code s} over every arc, after a {@code reset()}.
+     * @param  s the source vertex
+     * @return the number of vertices reached from {@code s}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public int bfs(int s) {
+        reset();
+        return search(s, ANY_TYPE, true);
+    }
+
+    /**
+     * Continues the current search from {@code s} without resetting the
+     * visited marks, e.g. to sweep every component.
+     * @param  s the source vertex
+     * @param  type the media type code to follow, or {@code ANY_TYPE}
+     * @return the number of vertices newly reached from {@code s}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public int extend(int s, int type) {
+        return search(s, type, false);
+    }
+
+    // scan from s, popping from the top (dfs) or the bottom (bfs) of the array
+    private int search(int s, int type, boolean breadthFirst) {
+        validateVertex(s);
+        if (stamp[s] == epoch) return 0;
+        int head = 0, top = 0, reached = 0;
+        stamp[s] = epoch;
+        stack[top++] = s;
+        while (head < top) {
+            int v = breadthFirst ? stack[head++] : stack[--top];
+            reached++;
+            for (int a = G.begin(v); a < G.end(v); a++) {
+                int w = G.target(a);
+                if (stamp[w] == epoch) continue;
+                if (type != ANY_TYPE && G.type(a) != type) continue;
+                stamp[w] = epoch;
+                stack[top++] = w;
+            }
+        }
+        count += reached;
+        return reached;
+    }
+
+    /**
+     * Was vertex {@code v} reached (or excluded) since the last {@code reset()}?
+     * @param  v the vertex
+     * @return {@code true} if {@code v} is marked in the current search
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean marked(int v) {
+        validateVertex(v);
+        return stamp[v] == epoch;
+    }
+
+    /**
+     * Returns the number of vertices reached since the last {@code reset()}.
+     * @return the number of vertices reached
+     */
+    public int count() {
+        return count;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = stamp.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
@@ -0,0 +1,347 @@
+/******************************************************************************
+ *  Compilation:  javac IndexDoubleMinPQ.java
+ *
+ *  Minimum-oriented indexed PQ of primitive double keys using a d-ary heap.
+ *
+ ******************************************************************************/
+
+import java.util.NoSuchElementException;
+
+/**
+ *  The {@code IndexDoubleMinPQ} class represents an indexed priority queue of
+ *  {@code double} keys. It has the same operations as {@link IndexMinPQ},
+ *  but stores keys in a primitive {@code double[]}, so keys are never boxed
+ *  into {@code Double} objects and comparisons are plain {@code <} instead
+ *  of calls to {@code compareTo()}.
+ *  <p>
+ *  This implementation uses a <em>d</em>-ary heap (4-ary by default) along
+ *  with {@code int[]} arrays associating heap positions and indices. A wider
+ *  heap is shallower, so <em>insert</em> and <em>decrease-key</em>, the
+ *  common operations in Dijkstra's and Prim's algorithms, move fewer entries
+ *  and the children compared in <em>delete-the-minimum</em> sit next to each
+ *  other in memory.
+ *  The <em>insert</em>, <em>decrease-key</em> and <em>delete</em> operations
+ *  take time proportional to log<sub><em>d</em></sub> <em>n</em>;
+ *  <em>delete-the-minimum</em> and <em>increase-key</em> take time proportional
+ *  to <em>d</em> log<sub><em>d</em></sub> <em>n</em>.
+ *  The <em>is-empty</em>, <em>size</em>, <em>min-index</em>, <em>min-key</em>,
+ *  <em>contains</em>, and <em>key-of</em> operations take constant time.
+ *  {@code clear()} takes time proportional to the number of keys left, so one
+ *  queue can be reused across many searches.
+ *  <p>
+ *  An index may also carry a {@code long} tie-breaker, given to
+ *  {@code insert()} and {@code decreaseKey()}, which orders indices whose
+ *  keys are equal; indices inserted without one have tie-breaker 0. The
+ *  tie-breakers are only allocated once one is given.
+ */
+public class IndexDoubleMinPQ {
+    public static final int DEFAULT_ARITY = 4;
+
+    private final int maxN;      // maximum number of elements on PQ
+    private final int d;         // number of children of each heap node
+    private int n;               // number of elements on PQ
+    private final int[] pq;      // d-ary heap using 0-based indexing
+    private final int[] qp;      // inverse of pq - qp[pq[i]] = pq[qp[i]] = i
+    private final double[] keys; // keys[i] = priority of i
+    private long[] ties;         // ties[i] = tie-breaker of i among equal keys, null until one is given
+
+    /**
+     * Initializes an empty 4-ary indexed priority queue with indices between
+     * {@code 0} and {@code maxN - 1}.
+     * @param  maxN the keys on this priority queue are index from {@code 0} to {@code maxN - 1}
+     * @throws IllegalArgumentException if {@code maxN < 0}
+     */
+    public IndexDoubleMinPQ(int maxN) {
+        this(maxN, DEFAULT_ARITY);
+    }
+
+    /**
+     * Initializes an empty {@code d}-ary indexed priority queue with indices
+     * between {@code 0} and {@code maxN - 1}.
+     * @param  maxN the keys on this priority queue are index from {@code 0} to {@code maxN - 1}
+     * @param  d the number of children of each heap node
+     * @throws IllegalArgumentException if {@code maxN < 0} or {@code d < 2}
+     */
+    public IndexDoubleMinPQ(int maxN, int d) {
+        if (maxN < 0) throw new IllegalArgumentException();
+        if (d < 2) throw new IllegalArgumentException("heap arity must be at least 2");
+        this.maxN = maxN;
+        this.d = d;
+        keys = new double[maxN];
+        pq   = new int[maxN];
+        qp   = new int[maxN];
+        for (int i = 0; i < maxN; i++)
+            qp[i] = -1;
+    }
+
+    /**
+     * Returns true if this priority queue is empty.
+     *
+     * @return {@code true} if this priority queue is empty;
+     *         {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Is {@code i} an index on this priority queue?
+     *
+     * @param  i an index
+     * @return {@code true} if {@code i} is an index on this priority queue;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     */
+    public boolean contains(int i) {
+        if (i < 0 || i >= maxN) throw new IllegalArgumentException();
+        return qp[i] != -1;
+    }
+
+    /**
+     * Returns the number of keys on this priority queue.
+     *
+     * @return the number of keys on this priority queue
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Removes every key, in time proportional to the number of keys on the queue.
+     */
+    public void clear() {
+        for (int k = 0; k < n; k++)
+            qp[pq[k]] = -1;
+        n = 0;
+    }
+
+    /**
+     * Associates key with index {@code i}.
+     *
+     * @param  i an index
+     * @param  key the key to associate with index {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if there already is an item associated
+     *         with index {@code i}
+     */
+    public void insert(int i, double key) {
+        if (contains(i)) throw new IllegalArgumentException("index is already in the priority queue");
+        qp[i] = n;
+        pq[n] = i;
+        keys[i] = key;
+        if (ties != null) ties[i] = 0;
+        swim(n++);
+    }
+
+    /**
+     * Associates key with index {@code i}, ordered after indices with an
+     * equal key and a smaller tie-breaker.
+     *
+     * @param  i an index
+     * @param  key the key to associate with index {@code i}
+     * @param  tie the tie-breaker of index {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if there already is an item associated
+     *         with index {@code i}
+     */
+    public void insert(int i, double key, long tie) {
+        if (contains(i)) throw new IllegalArgumentException("index is already in the priority queue");
+        if (ties == null) ties = new long[maxN];
+        qp[i] = n;
+        pq[n] = i;
+        keys[i] = key;
+        ties[i] = tie;
+        swim(n++);
+    }
+
+    /**
+     * Returns an index associated with a minimum key.
+     *
+     * @return an index associated with a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public int minIndex() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        return pq[0];
+    }
+
+    /**
+     * Returns a minimum key.
+     *
+     * @return a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public double minKey() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        return keys[pq[0]];
+    }
+
+    /**
+     * Removes a minimum key and returns its associated index.
+     * @return an index associated with a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public int delMin() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        int min = pq[0];
+        exch(0, --n);
+        sink(0);
+        qp[min] = -1;        // delete
+        return min;
+    }
+
+    /**
+     * Returns the key associated with index {@code i}.
+     *
+     * @param  i the index of the key to return
+     * @return the key associated with index {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public double keyOf(int i) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        return keys[i];
+    }
+
+    /**
+     * Change the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to change
+     * @param  key change the key associated with index {@code i} to this key
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void changeKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        keys[i] = key;
+        swim(qp[i]);
+        sink(qp[i]);
+    }
+
+    /**
+     * Decrease the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to decrease
+     * @param  key decrease the key associated with index {@code i} to this key
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if {@code key >= keyOf(i)}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void decreaseKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (keys[i] <= key)
+            throw new IllegalArgumentException("Calling decreaseKey() with given argument would not strictly decrease the key");
+        keys[i] = key;
+        swim(qp[i]);
+    }
+
+    /**
+     * Decrease the key and tie-breaker associated with index {@code i}, so
+     * that the key gets smaller, or stays equal with a smaller tie-breaker.
+     *
+     * @param  i the index of the key to decrease
+     * @param  key decrease the key associated with index {@code i} to this key
+     * @param  tie the new tie-breaker of index {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if {@code key} and {@code tie} would not
+     *         move index {@code i} strictly ahead of where it is
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void decreaseKey(int i, double key, long tie) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (ties == null) ties = new long[maxN];
+        if (keys[i] < key || (keys[i] == key && ties[i] <= tie))
+            throw new IllegalArgumentException("Calling decreaseKey() with given arguments would not strictly decrease the key");
+        keys[i] = key;
+        ties[i] = tie;
+        swim(qp[i]);
+    }
+
+    /**
+     * Increase the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to increase
+     * @param  key increase the key associated with index {@code i} to this key
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if {@code key <= keyOf(i)}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void increaseKey(int i, double key) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (keys[i] >= key)
+            throw new IllegalArgumentException("Calling increaseKey() with given argument would not strictly increase the key");
+        keys[i] = key;
+        sink(qp[i]);
+    }
+
+    /**
+     * Remove the key associated with index {@code i}.
+     *
+     * @param  i the index of the key to remove
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void delete(int i) {
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        int index = qp[i];
+        exch(index, --n);
+        qp[i] = -1;
+        if (index < n) {
+            swim(index);
+            sink(index);
+        }
+    }
+
+
+   /***************************************************************************
+    * General helper functions.
+    ***************************************************************************/
+    // is index i ahead of index j, by key and then by tie-breaker?
+    private boolean less(int i, int j) {
+        return keys[i] < keys[j] || (keys[i] == keys[j] && ties != null && ties[i] < ties[j]);
+    }
+
+    private void exch(int i, int j) {
+        int swap = pq[i];
+        pq[i] = pq[j];
+        pq[j] = swap;
+        qp[pq[i]] = i;
+        qp[pq[j]] = j;
+    }
+
+
+   /***************************************************************************
+    * Heap helper functions. The children of heap position k are
+    * d*k+1 through d*k+d and its parent is (k-1)/d.
+    ***************************************************************************/
+    private void swim(int k) {
+        int i = pq[k];
+        while (k > 0) {
+            int parent = (k - 1) / d;
+            if (!less(i, pq[parent])) break;
+            pq[k] = pq[parent];
+            qp[pq[k]] = k;
+            k = parent;
+        }
+        pq[k] = i;
+        qp[i] = k;
+    }
+
+    private void sink(int k) {
+        int i = pq[k];
+        while (true) {
+            int first = d * k + 1;
+            if (first >= n) break;
+            int last = Math.min(first + d, n);
+            int min = first;
+            for (int j = first + 1; j < last; j++)
+                if (less(pq[j], pq[min])) min = j;
+            if (!less(pq[min], i)) break;
+            pq[k] = pq[min];
+            qp[pq[k]] = k;
+            k = min;
+        }
+        pq[k] = i;
+        qp[i] = k;
+    }
+}
@@ -0,0 +1,174 @@
+/******************************************************************************
+ *
+ *  Minimum spanning forest of an undirected NetworkGraph with Kruskal's
+ *  algorithm over primitive edge arrays.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code KruskalMST} class computes a minimum spanning forest of a
+ *  {@link NetworkGraph}, in which every cable is a single undirected
+ *  {@link Edge}, so each cable is considered once rather than twice as in
+ *  the dual way digraph used by {@link PrimMST}.
+ *  <p>
+ *  The edge weights are copied into a {@code double[]} and the edge ids are
+ *  sorted with a merge sort on {@code int[]} arrays, so no edge objects are
+ *  compared. Edges are ordered by weight, then by their endpoints (smaller
+ *  endpoint first), then by their position in {@code G.edges()}; the same
+ *  order is used by {@link BoruvkaMST} and by {@link PrimMST} on a
+ *  {@link CSRGraph}, so all three find the same forest even when many edges
+ *  have equal weights. The edges are then added in order, skipping those
+ *  that would close a cycle according to a {@link UF}.
+ *  <p>
+ *  {@code edges()} reports the forest the way {@code PrimMST} does: each tree
+ *  is rooted at its smallest vertex and the edge joining vertex <em>v</em>
+ *  to its parent is listed in order of <em>v</em>, oriented from the parent,
+ *  so the output is identical to {@code PrimMST}'s. Parallel cables of equal
+ *  weight are the only edges the three may choose differently, and they
+ *  print the same.
+ *  <p>
+ *  The constructor takes time proportional to <em>E</em> log <em>E</em>
+ *  and extra space proportional to <em>E</em>.
+ */
+public class KruskalMST {
+    private final DirectedEdge[] edgeTo;   // edgeTo[v] = tree edge from v's parent to v
+
+    /**
+     * Computes a minimum spanning forest of {@code G}.
+     * @param G the undirected network graph
+     */
+    public KruskalMST(NetworkGraph G) {
+        int V = G.V();
+        Edge[] edges = edgeArray(G);
+        int E = edges.length;
+        double[] weight = new double[E];
+        long[] tie = new long[E];
+        int[] order = new int[E];
+        for (int i = 0; i < E; i++) {
+            int v = edges[i].either();
+            weight[i] = edges[i].weight();
+            tie[i] = tieBreak(v, edges[i].other(v));
+            order[i] = i;
+        }
+        sort(order, weight, tie);
+
+        UF uf = new UF(V);
+        Edge[] tree = new Edge[Math.max(V - 1, 0)];
+        int n = 0;
+        for (int i = 0; i < E && n < tree.length; i++) {
+            Edge e = edges[order[i]];
+            int v = e.either(), w = e.other(v);
+            if (uf.connected(v, w)) continue;
+            uf.union(v, w);
+            tree[n++] = e;
+        }
+        edgeTo = rootForest(V, tree, n);
+    }
+
+    // the edges of G in the order G.edges() lists them
+    static Edge[] edgeArray(NetworkGraph G) {
+        Edge[] edges = new Edge[G.E()];
+        int n = 0;
+        for (Edge e : G.edges())
+            edges[n++] = e;
+        return n == edges.length ? edges : java.util.Arrays.copyOf(edges, n);
+    }
+
+    // the second key of the order on edges: the endpoints, smaller one first
+    static long tieBreak(int v, int w) {
+        return ((long) Math.min(v, w) << 32) | Math.max(v, w);
+    }
+
+    // does edge e come before edge f by weight, then by endpoints?
+    static boolean less(int e, int f, double[] weight, long[] tie) {
+        return weight[e] < weight[f] || (weight[e] == weight[f] && tie[e] < tie[f]);
+    }
+
+    // stable bottom-up merge sort of edge ids by weight, then by endpoints
+    private static void sort(int[] a, double[] weight, long[] tie) {
+        int n = a.length;
+        int[] aux = new int[n];
+        for (int len = 1; len < n; len *= 2) {
+            for (int lo = 0; lo < n - len; lo += 2 * len) {
+                int mid = lo + len, hi = Math.min(lo + 2 * len, n);
+                System.arraycopy(a, lo, aux, lo, hi - lo);
+                int i = lo, j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if      (i >= mid)                          a[k] = aux[j++];
+                    else if (j >= hi)                           a[k] = aux[i++];
+                    else if (less(aux[j], aux[i], weight, tie)) a[k] = aux[j++];
+                    else                                        a[k] = aux[i++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Orients the first {@code n} edges of a spanning forest the way
+     * {@link PrimMST} reports them: every tree is rooted at its smallest
+     * vertex, and the result holds, for every other vertex, the edge from
+     * its parent to it.
+     */
+    static DirectedEdge[] rootForest(int V, Edge[] tree, int n) {
+        // adjacency of the forest: slots begin[v] .. begin[v+1]-1 hold edge indices
+        int[] begin = new int[V + 1];
+        for (int i = 0; i < n; i++) {
+            begin[tree[i].either() + 1]++;
+            begin[tree[i].other(tree[i].either()) + 1]++;
+        }
+        for (int v = 0; v < V; v++)
+            begin[v + 1] += begin[v];
+        int[] next = java.util.Arrays.copyOf(begin, V);
+        int[] slot = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            int v = tree[i].either(), w = tree[i].other(v);
+            slot[next[v]++] = i;
+            slot[next[w]++] = i;
+        }
+
+        DirectedEdge[] edgeTo = new DirectedEdge[V];
+        boolean[] marked = new boolean[V];
+        int[] stack = new int[V];
+        for (int r = 0; r < V; r++) {
+            if (marked[r]) continue;
+            int top = 0;
+            marked[r] = true;
+            stack[top++] = r;
+            while (top > 0) {
+                int v = stack[--top];
+                for (int k = begin[v]; k < begin[v + 1]; k++) {
+                    Edge e = tree[slot[k]];
+                    int w = e.other(v);
+                    if (marked[w]) continue;
+                    marked[w] = true;
+                    edgeTo[w] = new DirectedEdge(v, w, e.getMediaType(), e.getBandwith(), e.getLength());
+                    stack[top++] = w;
+                }
+            }
+        }
+        return edgeTo;
+    }
+
+    /**
+     * Returns the edges in a minimum spanning tree (or forest).
+     * @return the edges in a minimum spanning tree (or forest) as
+     *    an iterable of edges
+     */
+    public Iterable<DirectedEdge> edges() {
+        Queue<DirectedEdge> mst = new Queue<DirectedEdge>();
+        for (int v = 0; v < edgeTo.length; v++)
+            if (edgeTo[v] != null) mst.enqueue(edgeTo[v]);
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in a minimum spanning tree (or forest).
+     * @return the sum of the edge weights in a minimum spanning tree (or forest)
+     */
+    public double weight() {
+        double weight = 0.0;
+        for (DirectedEdge e : edges())
+            weight += e.weight();
+        return weight;
+    }
+}
@@ -0,0 +1,239 @@
+/******************************************************************************
+ *
+ *  Point-to-point shortest paths with A* search guided by landmark
+ *  distances and the triangle inequality (ALT).
+ *
+ ******************************************************************************/
+import java.util.*;
+
+/**
+ *  The {@code LandmarkSP} class answers shortest path queries between pairs
+ *  of vertices in an edge-weighted digraph with nonnegative weights, using
+ *  A* search with lower bounds computed from a few landmark vertices.
+ *  <p>
+ *  For every landmark <em>L</em> the constructor stores the distances from
+ *  <em>L</em> to every vertex and from every vertex to <em>L</em>, computed
+ *  with {@link DijkstraSP} on the digraph and on its reverse. By the triangle
+ *  inequality, both d(<em>L</em>,<em>t</em>) - d(<em>L</em>,<em>v</em>) and
+ *  d(<em>v</em>,<em>L</em>) - d(<em>t</em>,<em>L</em>) are lower bounds on
+ *  d(<em>v</em>,<em>t</em>), and the largest of them over all landmarks
+ *  steers the search towards <em>t</em>. Landmarks are chosen greedily, each
+ *  one as far as possible from those picked before, which places them on the
+ *  outskirts of a geographically spread network.
+ *  <p>
+ *  Preprocessing runs 2<em>k</em> Dijkstra searches and keeps
+ *  2<em>k</em><em>V</em> doubles for <em>k</em> landmarks. A query settles
+ *  vertices in order of distance plus lower bound and stops when it settles
+ *  <em>t</em>. Queries reuse search buffers, so a {@code LandmarkSP} is not
+ *  thread safe.
+ */
+public class LandmarkSP {
+    private final EdgeWeightedDigraph G;
+    private final int[] landmarks;
+    private final double[][] from;      // from[i][v] = distance from landmark i to v
+    private final double[][] to;        // to[i][v] = distance from v to landmark i
+
+    // query buffers
+    private final double[] distTo;      // distTo[v] = length of shortest known s->v path
+    private final DirectedEdge[] edgeTo;
+    private final double[] bound;       // bound[v] = lower bound on the v->t distance, NaN if not computed
+    private final int[] touched;
+    private int touchedCount;
+    private final IndexDoubleMinPQ pq;
+    private int lastS = -1, lastT = -1, settled;
+
+    /**
+     * Picks {@code k} landmarks of {@code G} and computes their distances.
+     * @param  G the edge-weighted digraph
+     * @param  k the number of landmarks
+     * @throws IllegalArgumentException unless {@code 1 <= k <= V}
+     */
+    public LandmarkSP(EdgeWeightedDigraph G, int k) {
+        this(G, pickLandmarks(G, k));
+    }
+
+    /**
+     * Uses the given landmarks and computes their distances.
+     * @param  G the edge-weighted digraph
+     * @param  landmarks the landmark vertices
+     * @throws IllegalArgumentException unless every landmark is between {@code 0} and {@code V-1}
+     */
+    public LandmarkSP(EdgeWeightedDigraph G, int[] landmarks) {
+        this.G = G;
+        this.landmarks = landmarks.clone();
+        int V = G.V();
+        distTo = new double[V];
+        edgeTo = new DirectedEdge[V];
+        bound = new double[V];
+        touched = new int[V];
+        pq = new IndexDoubleMinPQ(V);
+        for (int L : landmarks) validateVertex(L);
+
+        EdgeWeightedDigraph R = G.reverse();
+        from = new double[landmarks.length][];
+        to = new double[landmarks.length][];
+        for (int i = 0; i < landmarks.length; i++) {
+            from[i] = distances(G, landmarks[i]);
+            to[i] = distances(R, landmarks[i]);
+        }
+        for (int v = 0; v < V; v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            bound[v] = Double.NaN;
+        }
+    }
+
+    // distances from s to every vertex of G
+    private static double[] distances(EdgeWeightedDigraph G, int s) {
+        DijkstraSP sp = new DijkstraSP(G, s);
+        double[] dist = new double[G.V()];
+        for (int v = 0; v < G.V(); v++)
+            dist[v] = sp.distTo(v);
+        return dist;
+    }
+
+    // farthest-point selection: start from the vertex farthest from 0, then
+    // repeatedly add the vertex whose nearest landmark is farthest away
+    private static int[] pickLandmarks(EdgeWeightedDigraph G, int k) {
+        int V = G.V();
+        if (k < 1 || k > V) throw new IllegalArgumentException("number of landmarks must be between 1 and " + V);
+        int[] landmarks = new int[k];
+        double[] nearest = distances(G, 0);
+        landmarks[0] = farthest(nearest);
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < k; i++) {
+            if (i > 0) landmarks[i] = farthest(nearest);
+            double[] dist = distances(G, landmarks[i]);
+            for (int v = 0; v < V; v++)
+                nearest[v] = Math.min(nearest[v], dist[v]);
+        }
+        return landmarks;
+    }
+
+    // the vertex with the largest entry, unreachable (infinite) entries first
+    private static int farthest(double[] dist) {
+        int best = 0;
+        for (int v = 1; v < dist.length; v++)
+            if (dist[v] > dist[best]) best = v;
+        return best;
+    }
+
+    // lower bound on the distance from v to t, ignoring landmarks that cannot reach both
+    private double bound(int v, int t) {
+        if (!Double.isNaN(bound[v])) return bound[v];
+        double b = 0.0;
+        for (int i = 0; i < landmarks.length; i++) {
+            double[] f = from[i], g = to[i];
+            if (f[t] < Double.POSITIVE_INFINITY && f[v] < Double.POSITIVE_INFINITY)
+                b = Math.max(b, f[t] - f[v]);
+            if (g[v] < Double.POSITIVE_INFINITY && g[t] < Double.POSITIVE_INFINITY)
+                b = Math.max(b, g[v] - g[t]);
+        }
+        bound[v] = b;
+        return b;
+    }
+
+    // run the A* search for s->t unless it is the previous query
+    private void search(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        if (s == lastS && t == lastT) return;
+        for (int k = 0; k < touchedCount; k++) {
+            int v = touched[k];
+            distTo[v] = Double.POSITIVE_INFINITY;
+            edgeTo[v] = null;
+            bound[v] = Double.NaN;
+        }
+        touchedCount = 0;
+        pq.clear();
+        settled = 0;
+
+        distTo[s] = 0.0;
+        touched[touchedCount++] = s;
+        pq.insert(s, bound(s, t));
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            settled++;
+            if (v == t) break;
+            for (DirectedEdge e : G.adj(v)) {
+                int w = e.to();
+                double dw = distTo[v] + e.weight();
+                if (distTo[w] > dw) {
+                    if (distTo[w] == Double.POSITIVE_INFINITY) touched[touchedCount++] = w;
+                    distTo[w] = dw;
+                    edgeTo[w] = e;
+                    // adding the bound may round the new key back up to the old one, so
+                    // use changeKey(); a vertex settled too early is simply reopened
+                    double key = dw + bound(w, t);
+                    if (pq.contains(w)) pq.changeKey(w, key);
+                    else                pq.insert(w, key);
+                }
+            }
+        }
+        lastS = s;
+        lastT = t;
+    }
+
+    /**
+     * Returns the landmark vertices.
+     * @return the landmarks
+     */
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code s} to {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the length of a shortest path from {@code s} to {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double dist(int s, int t) {
+        search(s, t);
+        return distTo[t];
+    }
+
+    /**
+     * Is there a path from {@code s} to {@code t}?
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return {@code true} if there is a path from {@code s} to {@code t}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        return dist(s, t) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns a shortest path from {@code s} to {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a shortest path from {@code s} to {@code t} as an iterable of
+     *         edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t) {
+        if (!hasPath(s, t)) return null;
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        for (DirectedEdge e = edgeTo[t]; e != null; e = edgeTo[e.from()])
+            path.push(e);
+        return path;
+    }
+
+    /**
+     * Returns the number of vertices settled by the latest query, a measure
+     * of how well the landmarks guided it.
+     * @return the number of vertices removed from the priority queue
+     */
+    public int settled() {
+        return settled;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
@@ -0,0 +1,216 @@
+/******************************************************************************
+ *  Compilation:  javac LatencyMatrix.java
+ *  Execution:    java LatencyMatrix network_data.txt latency_matrix.txt
+ *
+ *  All-pairs lowest latency matrix, computed with one Dijkstra run per
+ *  source vertex spread over a fork/join pool.
+ *
+ ******************************************************************************/
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ *  The {@code LatencyMatrix} class computes the length of a lowest latency
+ *  path between every pair of vertices of a {@link CSRGraph}.
+ *  <p>
+ *  Unlike {@link DijkstraAllPairsSP}, which keeps <em>V</em> {@link DijkstraSP}
+ *  objects with their edge arrays and priority queues, the result is a single
+ *  <em>V</em>-by-<em>V</em> matrix of {@code double} distances stored as one
+ *  row per source. The sources are split across a {@link ForkJoinPool}; each
+ *  worker thread reuses one {@link DijkstraWorkspace} for all the sources it
+ *  handles, so the only per-source allocation is the result row. Rows are
+ *  written by exactly one task, and the matrix is the same for any number of
+ *  threads.
+ *  <p>
+ *  The constructor takes time proportional to <em>V</em> (<em>E</em> log <em>V</em>)
+ *  divided by the number of threads, and the matrix uses 8<em>V</em><sup>2</sup> bytes.
+ *  Afterwards {@code dist()} and {@code hasPath()} take constant time.
+ *  If requested, the last arc of every path is kept as an int arc id per
+ *  pair, and {@code path()} rebuilds a path into a caller supplied buffer in
+ *  time proportional to its length times log <em>V</em>.
+ */
+public class LatencyMatrix {
+    private final CSRGraph G;
+    private final double[][] dist;     // dist[s][t] = lowest latency of an s->t path
+    private final int[][] arcTo;       // arcTo[s][t] = last arc on that path, null without paths
+
+    /**
+     * Computes the latency matrix of {@code G} using every available processor.
+     * @param G the CSR graph
+     */
+    public LatencyMatrix(CSRGraph G) {
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes the latency matrix of {@code G} with {@code parallelism} threads.
+     * @param G the CSR graph
+     * @param parallelism the number of worker threads
+     * @throws IllegalArgumentException if {@code parallelism < 1}
+     */
+    public LatencyMatrix(CSRGraph G, int parallelism) {
+        this(G, parallelism, false);
+    }
+
+    /**
+     * Computes the latency matrix of {@code G} with {@code parallelism} threads,
+     * optionally keeping the predecessor arc of every pair so paths can be
+     * rebuilt later. Predecessors are int arc ids into {@code G}, costing
+     * 4<em>V</em><sup>2</sup> bytes and no edge objects.
+     * @param G the CSR graph
+     * @param parallelism the number of worker threads
+     * @param paths whether to keep predecessor arcs for {@code path()}
+     * @throws IllegalArgumentException if {@code parallelism < 1}
+     */
+    public LatencyMatrix(final CSRGraph G, int parallelism, boolean paths) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        this.G = G;
+        dist = new double[G.V()][];
+        arcTo = paths ? new int[G.V()][] : null;
+        int grain = Math.max(1, G.V() / (8 * parallelism));
+        ThreadLocal<DijkstraWorkspace> workspaces = new ThreadLocal<DijkstraWorkspace>() {
+            protected DijkstraWorkspace initialValue() {
+                return new DijkstraWorkspace(G);
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Sources(workspaces, 0, G.V(), grain));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    // fills the rows of sources lo .. hi-1, splitting until a range is at most grain
+    // sources; the ranges a worker thread runs share that thread's workspace
+    private class Sources extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ThreadLocal<DijkstraWorkspace> workspaces;
+        private final int lo, hi, grain;
+
+        Sources(ThreadLocal<DijkstraWorkspace> workspaces, int lo, int hi, int grain) {
+            this.workspaces = workspaces;
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+        }
+
+        protected void compute() {
+            if (hi - lo > grain) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Sources(workspaces, lo, mid, grain), new Sources(workspaces, mid, hi, grain));
+                return;
+            }
+            DijkstraWorkspace sp = workspaces.get();
+            for (int s = lo; s < hi; s++) {
+                sp.run(s);
+                double[] row = new double[G.V()];
+                sp.copyDistances(row);
+                dist[s] = row;
+                if (arcTo != null) {
+                    int[] arcs = new int[G.V()];
+                    sp.copyArcs(arcs);
+                    arcTo[s] = arcs;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertices.
+     * @return the number of vertices
+     */
+    public int V() {
+        return dist.length;
+    }
+
+    /**
+     * Returns the length of a lowest latency path from {@code s} to {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the latency in seconds; {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double dist(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        return dist[s][t];
+    }
+
+    /**
+     * Is there a path from {@code s} to {@code t}?
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return {@code true} if there is a path from {@code s} to {@code t}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        return dist(s, t) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Writes the arcs of a lowest latency path from {@code s} to {@code t} into
+     * {@code buffer}, in order from {@code s}, without allocating. Use the
+     * arc accessors of the {@code CSRGraph} to read each arc's endpoints and data.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @param  buffer receives the arc ids; <em>V</em> - 1 entries always suffice
+     * @return the number of arcs on the path, or {@code -1} if there is no path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     * @throws IllegalArgumentException if the path does not fit in {@code buffer}
+     * @throws IllegalStateException if the matrix was computed without paths
+     */
+    public int path(int s, int t, int[] buffer) {
+        if (arcTo == null) throw new IllegalStateException("matrix was computed without paths");
+        if (!hasPath(s, t)) return -1;
+        return DijkstraWorkspace.tracePath(G, arcTo[s], t, buffer);
+    }
+
+    /**
+     * Writes the matrix as <em>V</em> lines of <em>V</em> space separated
+     * latencies in seconds, with "inf" for unreachable pairs.
+     * @param  out the writer to print to
+     * @throws IOException if writing fails
+     */
+    public void write(Writer out) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (double[] row : dist) {
+            line.setLength(0);
+            for (int t = 0; t < row.length; t++) {
+                if (t > 0) line.append(' ');
+                if (row[t] == Double.POSITIVE_INFINITY) line.append("inf");
+                else                                    line.append(row[t]);
+            }
+            line.append('\n');
+            out.write(line.toString());
+        }
+        out.flush();
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = dist.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Computes the latency matrix of a network data file or graph snapshot
+     * and writes it to a file.
+     * @param args the network file and the matrix file to write
+     * @throws IOException if either file cannot be accessed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java LatencyMatrix network_data.txt latency_matrix.txt");
+            return;
+        }
+        CSRGraph G = new NetworkLoader(args[0]).csr();
+        if (G == null) return;
+        LatencyMatrix matrix = new LatencyMatrix(G);
+        try (Writer out = new BufferedWriter(new FileWriter(args[1]), 1 << 16)) {
+            matrix.write(out);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/******************************************************************************
+ *
+ *  Configurable model of how long a packet takes to cross a cable:
+ *  propagation at a per-media speed, plus optional per-hop switching and
+ *  serialization delays. Computes one dense latency array per graph.
+ *
+ ******************************************************************************/
+import java.util.*;
+
+/**
+ *  The {@code LatencyModel} class computes the latency of every arc of a
+ *  {@link CSRGraph} under a chosen set of assumptions, so the same graph can
+ *  be analyzed under several models without rebuilding it or its edges.
+ *  <p>
+ *  The latency of a cable of length <em>L</em> meters and bandwidth
+ *  <em>B</em> megabits per second is <em>L</em> / speed + hop delay +
+ *  packet bits / (<em>B</em> &times; 10<sup>6</sup>). By default the speed is
+ *  the one registered with the cable's {@link MediaType} and both delays are
+ *  zero, which gives exactly the latencies the graph classes compute
+ *  themselves. With a serialization delay, a cable of bandwidth 0 has
+ *  infinite latency and is never used.
+ *  <p>
+ *  Models are immutable; the {@code with} methods return a modified copy.
+ *  {@code latencies()} returns an array indexed by arc id that can be passed
+ *  to {@link DijkstraSP} and {@link PrimMST}. It takes time proportional to
+ *  <em>E</em>, once per model and graph.
+ */
+public final class LatencyModel {
+    /**
+     * Propagation delay only, at the registered speed of every media type.
+     */
+    public static final LatencyModel PROPAGATION = new LatencyModel();
+
+    private final double[] speed;       // speed[c] = meters per second for code c, 0 for the registered speed
+    private final double hopDelay;      // seconds added per arc
+    private final int packetBits;       // bits serialized onto every arc
+
+    /**
+     * Initializes a model with the registered media speeds and no extra delays.
+     */
+    public LatencyModel() {
+        this(new double[0], 0.0, 0);
+    }
+
+    private LatencyModel(double[] speed, double hopDelay, int packetBits) {
+        this.speed = speed;
+        this.hopDelay = hopDelay;
+        this.packetBits = packetBits;
+    }
+
+    /**
+     * Returns a copy of this model in which cables of media type {@code type}
+     * propagate at {@code metersPerSecond}.
+     * @param  type the media type
+     * @param  metersPerSecond the propagation speed
+     * @return the new model
+     * @throws IllegalArgumentException unless {@code metersPerSecond > 0}
+     */
+    public LatencyModel withSpeed(MediaType type, double metersPerSecond) {
+        if (!(metersPerSecond > 0)) throw new IllegalArgumentException("speed must be positive");
+        double[] s = Arrays.copyOf(speed, Math.max(speed.length, type.code() + 1));
+        s[type.code()] = metersPerSecond;
+        return new LatencyModel(s, hopDelay, packetBits);
+    }
+
+    /**
+     * Returns a copy of this model that adds {@code seconds} of switching
+     * delay every time a packet crosses a cable.
+     * @param  seconds the delay per hop
+     * @return the new model
+     * @throws IllegalArgumentException if {@code seconds} is negative or not a number
+     */
+    public LatencyModel withHopDelay(double seconds) {
+        if (!(seconds >= 0)) throw new IllegalArgumentException("hop delay must be nonnegative");
+        return new LatencyModel(speed, seconds, packetBits);
+    }
+
+    /**
+     * Returns a copy of this model that adds the time needed to put a packet
+     * of {@code bits} bits onto each cable at the cable's bandwidth.
+     * @param  bits the packet size in bits, 0 for no serialization delay
+     * @return the new model
+     * @throws IllegalArgumentException if {@code bits < 0}
+     */
+    public LatencyModel withPacketSize(int bits) {
+        if (bits < 0) throw new IllegalArgumentException("packet size must be nonnegative");
+        return new LatencyModel(speed, hopDelay, bits);
+    }
+
+    /**
+     * Returns the propagation speed this model uses for media type {@code type}.
+     * @param  type the media type
+     * @return the speed in meters per second
+     */
+    public double speed(MediaType type) {
+        return speed(type.code());
+    }
+
+    private double speed(byte code) {
+        if (code < speed.length && speed[code] > 0) return speed[code];
+        return MediaType.of(code).speed();
+    }
+
+    /**
+     * Returns the switching delay added per hop.
+     * @return the delay in seconds
+     */
+    public double hopDelay() {
+        return hopDelay;
+    }
+
+    /**
+     * Returns the packet size used for the serialization delay.
+     * @return the packet size in bits
+     */
+    public int packetBits() {
+        return packetBits;
+    }
+
+    /**
+     * Returns the latency of one cable under this model.
+     * @param  type the media type code of the cable
+     * @param  meters the length of the cable in meters
+     * @param  bandwidth the bandwidth of the cable in megabits per second
+     * @return the seconds needed for a packet to cross the cable
+     * @throws IllegalArgumentException if no media type has code {@code type}
+     */
+    public double latency(byte type, int meters, int bandwidth) {
+        double seconds = (double)meters/speed(type);
+        if (hopDelay != 0) seconds += hopDelay;
+        if (packetBits != 0) seconds += packetBits / (bandwidth * 1e6);
+        return seconds;
+    }
+
+    /**
+     * Computes the latency of every arc of {@code G} under this model.
+     * @param  G the CSR graph
+     * @return an array holding the latency of arc {@code a} at index {@code a}
+     */
+    public double[] latencies(CSRGraph G) {
+        double[] latency = new double[G.E()];
+        for (int a = 0; a < latency.length; a++)
+            latency[a] = latency(G.type(a), G.length(a), G.bandwidth(a));
+        return latency;
+    }
+}
@@ -0,0 +1,146 @@
+/******************************************************************************
+ *
+ *  Registry of cable media types. Each type is interned once and identified
+ *  by a byte code, so edges store one byte and filters compare primitives.
+ *
+ ******************************************************************************/
+import java.util.*;
+
+/**
+ *  The {@code MediaType} class represents the medium a cable is made of,
+ *  together with the speed at which a packet propagates along it.
+ *  <p>
+ *  Every media type is registered once and gets the next free byte code;
+ *  {@code OPTICAL}, {@code COPPER} and {@code WIRELESS} are registered first
+ *  and have codes 0, 1 and 2. There is exactly one {@code MediaType} object
+ *  per name, so types can be compared with {@code ==}, and {@code of(byte)}
+ *  turns a code back into its type with one array read. {@link CSRGraph} and
+ *  {@link GraphSnapshot} store the codes, so a snapshot that uses types
+ *  registered at run time must be read after registering them in the same
+ *  order.
+ *  <p>
+ *  Registering a type makes it available to the network data parsers and to
+ *  {@link Edge} and {@link DirectedEdge}, without changing those classes.
+ *  For compatibility with older data files, a name that was never
+ *  registered is read as {@code OPTICAL}.
+ */
+public final class MediaType {
+    private static final int MAX_TYPES = 128;
+    private static final HashMap<String, MediaType> byName = new HashMap<String, MediaType>();
+    private static volatile MediaType[] byCode = new MediaType[0];
+
+    public static final MediaType OPTICAL  = register("optical", 200000000);
+    public static final MediaType COPPER   = register("copper", 230000000);
+    public static final MediaType WIRELESS = register("wireless", 299700000);
+
+    private final byte code;
+    private final String name;
+    private final int speed;        // propagation speed in meters per second
+
+    private MediaType(byte code, String name, int speed) {
+        this.code = code;
+        this.name = name;
+        this.speed = speed;
+    }
+
+    /**
+     * Registers the media type {@code name}, or returns it if it is already
+     * registered with the same speed.
+     * @param  name the cable type as it appears in network data files
+     * @param  speed the propagation speed in meters per second
+     * @return the media type
+     * @throws IllegalArgumentException if {@code speed} is not positive
+     * @throws IllegalArgumentException if {@code name} is registered with another speed
+     * @throws IllegalStateException if all 128 codes are taken
+     */
+    public static synchronized MediaType register(String name, int speed) {
+        if (speed <= 0) throw new IllegalArgumentException("speed must be positive");
+        MediaType type = byName.get(name);
+        if (type != null) {
+            if (type.speed != speed)
+                throw new IllegalArgumentException("media type " + name + " is registered with speed " + type.speed);
+            return type;
+        }
+        int n = byCode.length;
+        if (n == MAX_TYPES) throw new IllegalStateException("too many media types");
+        type = new MediaType((byte) n, name, speed);
+        MediaType[] types = Arrays.copyOf(byCode, n + 1);
+        types[n] = type;
+        byName.put(name, type);
+        byCode = types;
+        return type;
+    }
+
+    /**
+     * Returns the media type with byte code {@code code}.
+     * @param  code the byte code
+     * @return the media type
+     * @throws IllegalArgumentException if no media type has that code
+     */
+    public static MediaType of(byte code) {
+        MediaType[] types = byCode;
+        if (code < 0 || code >= types.length)
+            throw new IllegalArgumentException("unknown media type code " + code);
+        return types[code];
+    }
+
+    /**
+     * Returns the media type called {@code name}, or {@code OPTICAL} if no
+     * such type is registered.
+     * @param  name the cable type read from a network data file
+     * @return the media type
+     */
+    public static synchronized MediaType forName(String name) {
+        MediaType type = byName.get(name);
+        return type == null ? OPTICAL : type;
+    }
+
+    /**
+     * Returns every registered media type in order of code.
+     * @return the media types
+     */
+    public static MediaType[] values() {
+        return byCode.clone();
+    }
+
+    /**
+     * Returns the byte code of this media type.
+     * @return the byte code, between 0 and 127
+     */
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * Returns the name of this media type.
+     * @return the cable type as it appears in network data files
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the propagation speed of this media type.
+     * @return the speed in meters per second
+     */
+    public int speed() {
+        return speed;
+    }
+
+    /**
+     * Returns the latency of a cable of this media type.
+     * @param  meters the cable length in meters
+     * @return the seconds needed for a packet to cross the cable
+     */
+    public double latency(int meters) {
+        return (double)meters/(double)speed;
+    }
+
+    /**
+     * Returns the name of this media type.
+     * @return the name
+     */
+    public String toString() {
+        return name;
+    }
+}
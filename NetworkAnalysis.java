@@ -10,13 +10,83 @@ import java.lang.*;
 public class NetworkAnalysis
 {
     private static Scanner userInput = new Scanner(System.in);
-    private static NetworkGraph networkGraph; // undirected graph, with modifications for storing extra fields relating to network
-    private static EdgeWeightedDigraph dualWayDiGraph; // directed graph, with edges that point both ways for every edge
+    private static final int LANDMARKS = 8; // landmark vertices picked for --engine alt
+    private static NetworkLoader loader; // keeps the undirected form of the graph once it is built
+    private static String mstAlgorithm = "prim"; // prim, kruskal or boruvka, chosen with --mst
+    private static String pathEngine = "dijkstra"; // dijkstra, alt or bidi, answers option 1, chosen with --engine
+    private static String batchFile; // file of source/target pairs to answer without the menu, "-" for stdin
+    private static String outFile; // where batch results go, "-" or unset for stdout
+    private static LatencyModel latencyModel = LatencyModel.PROPAGATION; // cost of each cable in batch mode, see --hop-delay and --packet-bits
+    private static CSRGraph csrGraph; // compact array form of the graph, every cable stored as an edge in both directions
+    private static CopperConnectivity copper; // copper islands, updated as copper links are added
+    private static ShortestPathCache shortestPaths; // per source shortest path trees, computed only when asked for
+    private static LandmarkSP landmarkPaths; // A* search guided by landmarks, built on first use with --engine alt
+    private static WidestPathTree widestPaths; // maximum spanning forest for bandwidth queries, built on first use
+    private static BandwidthConstrainedSP constrainedPaths; // shortest paths over links with a minimum bandwidth
 
     public static void main(String args[]) throws IOException
     {
-        networkGraph = new NetworkGraph(args[0]); //create new undirected graph based on file
-        dualWayDiGraph = new EdgeWeightedDigraph(args[0]); // create new directed (dual way) graph based on file
+        String hopDelay = null, packetBits = null; // latency model settings, read once every flag is known
+        for(int i = 1; i < args.length; i++) // optional flags after the network file
+        {
+            if(args[i].equals("--mst") && i + 1 < args.length)
+                mstAlgorithm = args[++i];
+            else if(args[i].equals("--engine") && i + 1 < args.length)
+                pathEngine = args[++i];
+            else if(args[i].equals("--batch") && i + 1 < args.length)
+                batchFile = args[++i];
+            else if(args[i].equals("--out") && i + 1 < args.length)
+                outFile = args[++i];
+            else if(args[i].equals("--hop-delay") && i + 1 < args.length)
+                hopDelay = args[++i];
+            else if(args[i].equals("--packet-bits") && i + 1 < args.length)
+                packetBits = args[++i];
+            else
+            {
+                printUsage();
+                return;
+            }
+        }
+        // results can only be redirected, and latencies remodeled, in batch mode
+        if(args.length == 0 || ((outFile != null || hopDelay != null || packetBits != null) && batchFile == null))
+        {
+            printUsage();
+            return;
+        }
+        try
+        {
+            if(hopDelay != null)
+                latencyModel = latencyModel.withHopDelay(Double.parseDouble(hopDelay));
+            if(packetBits != null)
+                latencyModel = latencyModel.withPacketSize(Integer.parseInt(packetBits));
+        }
+        catch (IllegalArgumentException e) // also thrown for a number that does not parse
+        {
+            System.out.println("Invalid latency model: " + e.getMessage());
+            return;
+        }
+        if(!mstAlgorithm.equals("prim") && !mstAlgorithm.equals("kruskal") && !mstAlgorithm.equals("boruvka"))
+        {
+            System.out.println("Unknown spanning tree algorithm " + mstAlgorithm + ", choose prim, kruskal or boruvka");
+            return;
+        }
+        if(!pathEngine.equals("dijkstra") && !pathEngine.equals("alt") && !pathEngine.equals("bidi"))
+        {
+            System.out.println("Unknown shortest path engine " + pathEngine + ", choose dijkstra, alt or bidi");
+            return;
+        }
+        loader = new NetworkLoader(args[0]); // reads a text network file or a binary snapshot
+        csrGraph = loader.csr();
+        if(csrGraph == null) // the loader has already said why the file could not be read
+            return;
+        if(batchFile != null)
+        {
+            answerBatch();
+            return;
+        }
+        copper = new CopperConnectivity(csrGraph);
+        shortestPaths = new ShortestPathCache(csrGraph);
+        constrainedPaths = new BandwidthConstrainedSP(csrGraph);
         int userChoice;
         System.out.println("Welcome to my network analysis program!");
         
@@ -24,9 +94,9 @@ public class NetworkAnalysis
         {
             menuOptions();
             userChoice = userInput.nextInt();
-            while(userChoice <= 0 || userChoice > 5) //ensures the user enters a valid menu option
+            while(userChoice <= 0 || userChoice > 7) //ensures the user enters a valid menu option
             {
-                System.out.println("You did not enter a valid menu option please choose again (1-5)");
+                System.out.println("You did not enter a valid menu option please choose again (1-7)");
                 menuOptions();
                 userChoice = userInput.nextInt();
             }
@@ -35,16 +105,71 @@ public class NetworkAnalysis
         }
         
     }
+    public static void printUsage()
+    {
+        System.out.println("Usage: java NetworkAnalysis network_data.txt [--mst prim|kruskal|boruvka] [--engine dijkstra|alt|bidi]");
+        System.out.println("       java NetworkAnalysis network_data.txt --batch pairs.txt|- [--out results.txt|-]");
+        System.out.println("                            [--hop-delay seconds] [--packet-bits bits]");
+    }
+
+    // answers every source/target pair of batchFile without the menu, streaming results to outFile;
+    // a bad pair gets an error line of its own, an unreadable or unwritable file ends the batch with a message
+    public static void answerBatch()
+    {
+        BufferedReader pairs;
+        try
+        {
+            pairs = batchFile.equals("-") ? new BufferedReader(new InputStreamReader(System.in), 1 << 16)
+                                          : new BufferedReader(new FileReader(batchFile), 1 << 16);
+        }
+        catch (FileNotFoundException e)
+        {
+            System.out.println("This file was not found!");
+            return;
+        }
+        boolean stdout = outFile == null || outFile.equals("-");
+        Writer results = null;
+        try
+        {
+            results = stdout ? new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16)
+                             : new BufferedWriter(new FileWriter(outFile), 1 << 16);
+            new BatchQueries(csrGraph, latencyModel, Runtime.getRuntime().availableProcessors()).run(pairs, results);
+        }
+        catch (IOException e)
+        {
+            System.out.println("The batch could not be completed: " + e.getMessage());
+        }
+        finally
+        {
+            // only the files opened here are closed, System.in and System.out are just flushed and stay usable
+            try
+            {
+                if(!batchFile.equals("-"))
+                    pairs.close();
+                if(results != null && stdout)
+                    results.flush();
+                else if(results != null)
+                    results.close();
+            }
+            catch (IOException e)
+            {
+                System.out.println("The batch could not be completed: " + e.getMessage());
+            }
+        }
+    }
+
     //displays menu options for user to chose from
     public static void menuOptions()
     {
-        System.out.println("Select an option (1-5):");
+        System.out.println("Select an option (1-7):");
         System.out.println("------------------------------------------------------");
         System.out.println("(1) Find the lowest latency path between two points");
         System.out.println("(2) Determine whether or not the network is copper-only connected");
         System.out.println("(3) Find the lowest average latency spanning tree");
         System.out.println("(4) Determine whether or not the graph remains connected if any two vertices in network fail");
-        System.out.println("(5) Quit this network analysis program!");
+        System.out.println("(5) Find the highest bandwidth path between two points");
+        System.out.println("(6) Find the lowest latency path between two points with a minimum bandwidth");
+        System.out.println("(7) Quit this network analysis program!");
         System.out.println("------------------------------------------------------");
 
     }
@@ -77,7 +202,19 @@ public class NetworkAnalysis
                 connectedIfRemoved();
                 break;
             }
-            case 5:
+            case 5: // get widest path from user specified vertices
+            {
+                System.out.println("You chose option 5:\n");
+                getWidestPath();
+                break;
+            }
+            case 6: // get shortest path using only links with enough bandwidth
+            {
+                System.out.println("You chose option 6:\n");
+                getConstrainedPath();
+                break;
+            }
+            case 7:
             {
                 System.out.println("You chose to quit, thanks for using my network analysis program!");
                 System.exit(0);
@@ -93,14 +230,22 @@ public class NetworkAnalysis
         int vertice1 = userInput.nextInt();
         System.out.print("Enter second vertice: ");
         int vertice2 = userInput.nextInt();
-        DijkstraAllPairsSP shortestPath = new DijkstraAllPairsSP(dualWayDiGraph);
-        if(shortestPath.hasPath(vertice1, vertice2))
-        {
-            boolean setMinBandwith = true;
-            int minBandwith = 0;
-            Iterable<DirectedEdge> iterateSP = shortestPath.path(vertice1, vertice2);
-            String path = shortestPath.path(vertice1, vertice2).toString(); 
-            double latency = shortestPath.dist(vertice1, vertice2);
+        if(pathEngine.equals("alt"))
+        {
+            getLandmarkPath(vertice1, vertice2);
+            return;
+        }
+        if(pathEngine.equals("bidi"))
+        {
+            getBidirectionalPath(vertice1, vertice2);
+            return;
+        }
+        if(shortestPaths.hasPath(vertice1, vertice2))
+        {
+            String path = shortestPaths.path(vertice1, vertice2).toString(); 
+            double latency = shortestPaths.dist(vertice1, vertice2);
+            // bottleneck tracked by Dijkstra; a path with no edges has no bandwidth
+            int minBandwith = vertice1 == vertice2 ? 0 : shortestPaths.bandwidth(vertice1, vertice2);
             System.out.println("\nLowest Latency Path: ");
             System.out.println("-------------------------------------------");
             System.out.println("Edges of Lowest Latency Path from " + vertice1 + " to " + vertice2 + ":");
@@ -108,33 +253,104 @@ public class NetworkAnalysis
             System.out.println("-------------------------------------------");
             System.out.print("Total Latency along path: ");
             System.out.printf("%6.10f " + "seconds\n", latency);
-                    
-            //loops for every edge in shortest path, adding the bandwith each time
-            for(DirectedEdge e: iterateSP)
-            {
-                int currBandwith = e.getBandwith();
-                if(currBandwith < minBandwith)
-                {
-                    minBandwith = currBandwith;
-                }
-                if(setMinBandwith == true)
-                {
-                    minBandwith = currBandwith;
-                    setMinBandwith = false;
-                }
+            System.out.print("Min bandwith along path: " + minBandwith + "\n");
+        }
+    }
 
-            }
-            
+    // answers option 1 with an A* search steered by landmark distances instead of a full shortest path tree
+    public static void getLandmarkPath(int vertice1, int vertice2)
+    {
+        if(landmarkPaths == null)
+            landmarkPaths = new LandmarkSP(loader.digraph(), Math.min(LANDMARKS, csrGraph.V()));
+        if(landmarkPaths.hasPath(vertice1, vertice2))
+            printLatencyPath(vertice1, vertice2, landmarkPaths.path(vertice1, vertice2), landmarkPaths.dist(vertice1, vertice2));
+    }
+
+    // answers option 1 with a Dijkstra search from each end that stops where the two meet;
+    // the dual way digraph is its own reverse, so it serves both directions
+    public static void getBidirectionalPath(int vertice1, int vertice2)
+    {
+        EdgeWeightedDigraph digraph = loader.digraph();
+        BidirectionalDijkstraSP sp = new BidirectionalDijkstraSP(digraph, digraph, vertice1, vertice2);
+        if(sp.hasPath())
+            printLatencyPath(vertice1, vertice2, sp.path(), sp.dist());
+    }
+
+    // prints a lowest latency path the way option 1 does, with the smallest bandwidth of its edges
+    private static void printLatencyPath(int vertice1, int vertice2, Iterable<DirectedEdge> path, double latency)
+    {
+        int minBandwith = vertice1 == vertice2 ? 0 : Integer.MAX_VALUE;
+        for(DirectedEdge e: path)
+            minBandwith = Math.min(minBandwith, e.getBandwith());
+        System.out.println("\nLowest Latency Path: ");
+        System.out.println("-------------------------------------------");
+        System.out.println("Edges of Lowest Latency Path from " + vertice1 + " to " + vertice2 + ":");
+        System.out.println(path);
+        System.out.println("-------------------------------------------");
+        System.out.print("Total Latency along path: ");
+        System.out.printf("%6.10f " + "seconds\n", latency);
+        System.out.print("Min bandwith along path: " + minBandwith + "\n");
+    }
+
+    public static void getWidestPath()
+    {
+        System.out.println("Please enter the vertices which you wish to find the highest bandwidth path for: ");
+        System.out.print("Enter first vertice: ");
+        int vertice1 = userInput.nextInt();
+        System.out.print("Enter second vertice: ");
+        int vertice2 = userInput.nextInt();
+        if(widestPaths == null)
+            widestPaths = new WidestPathTree(csrGraph); // one maximum spanning forest answers every pair
+        if(widestPaths.connected(vertice1, vertice2))
+        {
+            double latency = 0;
+            Iterable<DirectedEdge> path = widestPaths.path(vertice1, vertice2);
+            for(DirectedEdge e: path)
+                latency += e.weight();
+            int maxBandwith = vertice1 == vertice2 ? 0 : widestPaths.bandwidth(vertice1, vertice2);
+            System.out.println("\nHighest Bandwidth Path: ");
+            System.out.println("-------------------------------------------");
+            System.out.println("Edges of Highest Bandwidth Path from " + vertice1 + " to " + vertice2 + ":");
+            System.out.println(path);
+            System.out.println("-------------------------------------------");
+            System.out.print("Total Latency along path: ");
+            System.out.printf("%6.10f " + "seconds\n", latency);
+            System.out.print("Min bandwith along path: " + maxBandwith + "\n");
+        }
+        else
+            System.out.println("There is no path between these vertices!");
+    }
+
+    public static void getConstrainedPath()
+    {
+        System.out.println("Please enter the vertices which you wish to find the shortest path for: ");
+        System.out.print("Enter first vertice: ");
+        int vertice1 = userInput.nextInt();
+        System.out.print("Enter second vertice: ");
+        int vertice2 = userInput.nextInt();
+        System.out.print("Enter the minimum bandwith every link must have: ");
+        int floor = userInput.nextInt();
+        if(constrainedPaths.hasPath(vertice1, vertice2, floor))
+        {
+            String path = constrainedPaths.path(vertice1, vertice2, floor).toString();
+            double latency = constrainedPaths.dist(vertice1, vertice2, floor);
+            int minBandwith = vertice1 == vertice2 ? 0 : constrainedPaths.bandwidth(vertice1, vertice2, floor);
+            System.out.println("\nLowest Latency Path with bandwith of at least " + floor + ": ");
+            System.out.println("-------------------------------------------");
+            System.out.println("Edges of Lowest Latency Path from " + vertice1 + " to " + vertice2 + ":");
+            System.out.println(path);
+            System.out.println("-------------------------------------------");
+            System.out.print("Total Latency along path: ");
+            System.out.printf("%6.10f " + "seconds\n", latency);
             System.out.print("Min bandwith along path: " + minBandwith + "\n");
         }
+        else
+            System.out.println("There is no path between these vertices using only links with bandwith of at least " + floor + "!");
     }
 
     public static void copperConnected()
     {   
-        int amountCopper = 0;
-        DepthFirstSearch searchCopper = new DepthFirstSearch(dualWayDiGraph, 0);
-        amountCopper = searchCopper.count();
-        if(amountCopper == dualWayDiGraph.V())
+        if(copper.isConnected()) // one copper island holds every vertex
             System.out.println("Network is connected if using only copper links!");
         else
             System.out.println("Network is not connected if using only copper links!");
@@ -144,14 +360,31 @@ public class NetworkAnalysis
     {
         double totalLatency = 0; // keeps track of total latency for min spanning tree
         int minEdges = 0; // keep track of number of edges making up min spanning tree
-        PrimMST mst = new PrimMST(dualWayDiGraph); // instantiate new PrimMST to find avg minimum spanning tree
+        Iterable<DirectedEdge> mstEdges; // every algorithm lists the tree edges the way PrimMST does
+        if(mstAlgorithm.equals("kruskal"))
+        {
+            KruskalMST mst = new KruskalMST(loader.graph()); // considers each undirected cable once
+            mstEdges = mst.edges();
+            totalLatency = mst.weight();
+        }
+        else if(mstAlgorithm.equals("boruvka"))
+        {
+            BoruvkaMST mst = new BoruvkaMST(loader.graph(), Runtime.getRuntime().availableProcessors());
+            mstEdges = mst.edges();
+            totalLatency = mst.weight();
+        }
+        else
+        {
+            PrimMST mst = new PrimMST(csrGraph); // instantiate new PrimMST to find avg minimum spanning tree
+            mstEdges = mst.edges();
+            totalLatency = mst.weight(); // stores the total weight of all the edges in the MST
+        }
         System.out.println("Average Min Latency Spanning Tree (Edges that make up this tree): ");
-        for (DirectedEdge e : mst.edges()) 
+        for (DirectedEdge e : mstEdges) 
         {
             minEdges++;
             System.out.print("  " + e); // print the edges that make up this avg min spanning tree
         }
-        totalLatency = mst.weight(); // stores the total weight of all the edges in the MST
         System.out.println("\n");
         System.out.print("Total Latency of this Min Spanning Tree: ");
         System.out.printf("%.10f\n\n", totalLatency); // formats total latency to print with 10 decimals
@@ -162,46 +395,24 @@ public class NetworkAnalysis
 
     public static void connectedIfRemoved()
     {
+        if(csrGraph.V() == 2) // handles the corner case that if there are only 2 vertices in graph both will be
+        {
+            System.out.println("This graph only contains 2 vertices, therefore failure of any pair of these veritces will disconnect network");
+            System.out.print("Pair of Vertices causing disconnection: " + "(" + 0 + ", " + 1 + ")\n");
+            return;
+        }
         // ArrayList used to store strings of failed pairs in form: (i, k)
         ArrayList<String> failedPairs = new ArrayList<String>();
-        int count = 0;
-        int start = 0; // starting index to dfs from
-        //double nested for loop to depth first search through every unmarked vertice
-        for(int i = 0; i < (networkGraph.V() - 1); i++)
+        // removes each vertex i once and finds the articulation points k of what is left,
+        // rather than running a depth first search for every pair (i, k), using every core
+        VertexPairFailures failures = new VertexPairFailures(csrGraph, Runtime.getRuntime().availableProcessors());
+        for(int i = 0; i < csrGraph.V(); i++)
         {
-            for(int k = i + 1; k < networkGraph.V(); k++)
+            for(int k : failures.failingWith(i))
             {
-                if(i != 0)
-                    start = 0;
-                else
-                {
-                    if(k - i != 1)
-                        start = k - 1;
-                    else if(k != networkGraph.V() -1)
-                        start = k + 1;
-                    else // handles the corner case that if there are only 2 vertices in graph both will be
-                        {
-                            System.out.println("This graph only contains 2 vertices, therefore failure of any pair of these veritces will disconnect network");
-                            System.out.print("Pair of Vertices causing disconnection: " + "(" + i + ", " + k + ")\n");
-                            return;
-                        }
-
-                }
-                //Instantiates new depth first search on undirected network graph
-                //starts the traversal at set start index specified by coniditional statements above
-                // searches through all unmarked pairs of vertices (i,k)
-                DepthFirstSearch dfs = new DepthFirstSearch(networkGraph, start, i, k);
-
-                // if the count of vertices after performing dfs is less than that of the
-                //total amount of vertices minus the two removed
-                if(dfs.count() < networkGraph.V() -2)
-                {
-                    //adds a string to arraylist to represent pairs of vertices that cause graph connection to fail
-                    String addFailedPair = "(" + i + ", " + k + ")";
-                    failedPairs.add(addFailedPair);
-                }
-                count = dfs.count();
-
+                //adds a string to arraylist to represent pairs of vertices that cause graph connection to fail
+                String addFailedPair = "(" + i + ", " + k + ")";
+                failedPairs.add(addFailedPair);
             }
         }
 
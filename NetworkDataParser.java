@@ -0,0 +1,213 @@
+/******************************************************************************
+ *
+ *  Allocation-free parser for network data files. The file is memory mapped
+ *  in windows and tokenized byte by byte straight into primitive arrays, so
+ *  no String, String[] or boxed value is created per edge line.
+ *
+ ******************************************************************************/
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ *  The {@code NetworkDataParser} class reads a network data file: a first
+ *  line holding the number of vertices, then one "u v type bandwidth length"
+ *  line per cable. Tokens may be separated by any run of spaces or tabs and
+ *  lines may end in LF or CRLF; blank lines are ignored.
+ *  <p>
+ *  The file is mapped with {@code FileChannel.map} in windows of at most
+ *  {@code WINDOW} bytes, each ending on a line break, so files larger than
+ *  2 GB can be read. Cable types are classified directly from their bytes
+ *  into the codes of the registered {@link MediaType}s. The parsed cables are kept
+ *  in parallel arrays indexed 0 through <em>E</em> - 1, in file order.
+ */
+public class NetworkDataParser {
+    private static final int WINDOW = 1 << 26;       // bytes mapped at a time
+
+    private int V = -1;          // number of vertices, from the first line
+    private int E;               // number of cables parsed
+    private int[] from;          // from[i] = first endpoint of cable i
+    private int[] to;            // to[i] = second endpoint of cable i
+    private byte[] type;         // type[i] = media type code of cable i
+    private int[] bandwidth;     // bandwidth[i] = bandwidth of cable i
+    private int[] length;        // length[i] = length of cable i
+    private final byte[][] names = mediaNames();   // names[c] = name of the media type with code c
+    private int line;            // line number being parsed, for error messages
+    private final int[] fields = new int[5];
+
+    /**
+     * Parses the network data file {@code file}.
+     * @param  file the path of the network data file
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public NetworkDataParser(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            long size = channel.size();
+            allocate((int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, size / 24)));
+            long pos = 0;
+            while (pos < size) {
+                long remaining = size - pos;
+                int window = (int) Math.min(WINDOW, remaining);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, window);
+                int limit = window;
+                if (window < remaining) {
+                    // stop after the last complete line in this window
+                    while (limit > 0 && buffer.get(limit - 1) != '\n') limit--;
+                    if (limit == 0) throw new IOException("line " + (line + 1) + " is longer than " + WINDOW + " bytes");
+                }
+                parse(buffer, limit);
+                pos += limit;
+            }
+        }
+        if (V < 0) throw new IOException("file " + file + " is empty");
+    }
+
+    // parse every line in buffer[0 .. limit)
+    private void parse(ByteBuffer buffer, int limit) throws IOException {
+        int i = 0;
+        while (i < limit) {
+            line++;
+            int n = 0;
+            // tokenize one line into fields[], classifying the third token as a media type
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (b == '\n') { i++; break; }
+                if (b == ' ' || b == '\t' || b == '\r') { i++; continue; }
+                if (n >= 5) throw new IOException("line " + line + " has more than five fields");
+                if (n == 2 && V >= 0) {
+                    int start = i;
+                    while (i < limit && !isSeparator(buffer.get(i))) i++;
+                    fields[n++] = classify(buffer, start, i);
+                    continue;
+                }
+                int value = 0;
+                while (i < limit && !isSeparator(b = buffer.get(i))) {
+                    if (b < '0' || b > '9') throw new IOException("line " + line + " has a malformed number");
+                    if (value > (Integer.MAX_VALUE - (b - '0')) / 10)
+                        throw new IOException("line " + line + " has a number out of range");
+                    value = value * 10 + (b - '0');
+                    i++;
+                }
+                fields[n++] = value;
+            }
+            if (n == 0) continue;                    // blank line
+            if (V < 0) {
+                if (n != 1) throw new IOException("line " + line + " should only hold the number of vertices");
+                V = fields[0];
+                continue;
+            }
+            if (n != 5) throw new IOException("line " + line + " should hold five fields, found " + n);
+            if (fields[0] >= V || fields[1] >= V)
+                throw new IOException("line " + line + " has a vertex that is not between 0 and " + (V-1));
+            if (E == from.length) allocate(2 * E);
+            from[E] = fields[0];
+            to[E] = fields[1];
+            type[E] = (byte) fields[2];
+            bandwidth[E] = fields[3];
+            length[E] = fields[4];
+            E++;
+        }
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    // the names of the media types registered so far, indexed by code
+    private static byte[][] mediaNames() {
+        MediaType[] types = MediaType.values();
+        byte[][] names = new byte[types.length][];
+        for (int c = 0; c < types.length; c++)
+            names[c] = types[c].name().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return names;
+    }
+
+    // media type code of the name in buffer[start .. end); unknown names are optical
+    private int classify(ByteBuffer buffer, int start, int end) {
+        for (int c = 0; c < names.length; c++)
+            if (matches(buffer, start, end, names[c])) return c;
+        return MediaType.OPTICAL.code();
+    }
+
+    // does buffer[start .. end) hold exactly the bytes of word?
+    private static boolean matches(ByteBuffer buffer, int start, int end, byte[] word) {
+        if (end - start != word.length) return false;
+        for (int k = 0; k < word.length; k++)
+            if (buffer.get(start + k) != word[k]) return false;
+        return true;
+    }
+
+    // resize the cable arrays to hold capacity cables
+    private void allocate(int capacity) {
+        from = grow(from, capacity);
+        to = grow(to, capacity);
+        bandwidth = grow(bandwidth, capacity);
+        length = grow(length, capacity);
+        byte[] t = new byte[capacity];
+        if (type != null) System.arraycopy(type, 0, t, 0, E);
+        type = t;
+    }
+
+    private int[] grow(int[] a, int capacity) {
+        int[] copy = new int[capacity];
+        if (a != null) System.arraycopy(a, 0, copy, 0, E);
+        return copy;
+    }
+
+    /**
+     * Returns the number of vertices given on the first line.
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of cables parsed.
+     * @return the number of cables
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns the first endpoint of every cable; only the first {@code E()} entries are used.
+     * @return the first endpoints, indexed by cable
+     */
+    public int[] from() {
+        return from;
+    }
+
+    /**
+     * Returns the second endpoint of every cable; only the first {@code E()} entries are used.
+     * @return the second endpoints, indexed by cable
+     */
+    public int[] to() {
+        return to;
+    }
+
+    /**
+     * Returns the media type code of every cable; only the first {@code E()} entries are used.
+     * @return the media type codes, indexed by cable
+     */
+    public byte[] type() {
+        return type;
+    }
+
+    /**
+     * Returns the bandwidth of every cable; only the first {@code E()} entries are used.
+     * @return the bandwidths in megabits per second, indexed by cable
+     */
+    public int[] bandwidth() {
+        return bandwidth;
+    }
+
+    /**
+     * Returns the length of every cable; only the first {@code E()} entries are used.
+     * @return the lengths in meters, indexed by cable
+     */
+    public int[] length() {
+        return length;
+    }
+}
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.Consumer;
 import java.io.*;
 import java.lang.*;
 
@@ -9,55 +10,21 @@ public class NetworkGraph
     private int numVertices;
     private int numEdges = 0;
 
-    // constructor that makes undirected graph from command line specified file
-    public NetworkGraph(String file) throws IOException
-    {
-        makeGraph(file);
-    }
-
-    private void makeGraph(String file) throws IOException
+    /**
+     * Initializes an empty undirected graph with {@code V} vertices and 0 edges.
+     *
+     * @param  V the number of vertices
+     * @throws IllegalArgumentException if {@code V < 0}
+     */
+    public NetworkGraph(int V)
     {
-        if(file == null)
-        {
-            System.out.println("You provided no file for inputing network data");
-            return;
-        }
-        String edgeInfo;
-        String[] organizeEdgeInfo;
-        BufferedReader readFile; 
-        try 
-        {
-            readFile = new BufferedReader(new FileReader(file));
-        } 
-        catch (FileNotFoundException e) 
-        {
-            System.out.println("This file was not found!");
-            return;
-        }
-        numVertices = Integer.parseInt(readFile.readLine());
-        adjacencyList = new EdgeList[numVertices];
+        if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+        numVertices = V;
+        adjacencyList = new EdgeList[V];
         for(int i = 0; i < adjacencyList.length; i++)
             adjacencyList[i] = new EdgeList();
-
-        while(true)
-        {
-            edgeInfo = readFile.readLine();
-            if(edgeInfo == null)
-                break;
-            organizeEdgeInfo = edgeInfo.split(" ");
-            int vertexSource = Integer.parseInt(organizeEdgeInfo[0]);
-            int vertexDest = Integer.parseInt(organizeEdgeInfo[1]);
-            String type = organizeEdgeInfo[2];
-            int bandwith = Integer.parseInt(organizeEdgeInfo[3]);
-            int length =  Integer.parseInt(organizeEdgeInfo[4]);
-            Edge edgeSourceToDest = new Edge(vertexSource, vertexDest, type, bandwith, length);
-            Edge edgeDestToSource = new Edge(vertexDest, vertexSource, type, bandwith, length);
-            addEdge(edgeSourceToDest, edgeDestToSource);
-
-        }
-        readFile.close();
-        
     }
+
     /**
      * Returns the number of vertices in this edge-weighted graph.
      *
@@ -92,6 +59,17 @@ public class NetworkGraph
         numEdges++;
     }
 
+    /**
+     * Adds the undirected edge {@code e} to this edge-weighted graph, storing
+     * the same {@code Edge} object in the adjacency lists of both endpoints.
+     *
+     * @param  e the edge
+     * @throws IllegalArgumentException unless both endpoints are between {@code 0} and {@code V-1}
+     */
+    public void addEdge(Edge e) {
+        addEdge(e, e);
+    }
+
     /**
      * Returns the edges incident on vertex {@code v}.
      *
@@ -120,25 +98,72 @@ public class NetworkGraph
      * Returns all edges in this edge-weighted graph.
      * To iterate over the edges in this edge-weighted graph, use foreach notation:
      * {@code for (Edge e : G.edges())}.
+     * The iterable is a view over the adjacency lists that reports each edge
+     * from its lower endpoint; no edges are copied.
      *
      * @return all edges in this edge-weighted graph, as an iterable
      */
     public Iterable<Edge> edges() {
-        LinkedList<Edge> list = new LinkedList<Edge>();
+        return new Iterable<Edge>() {
+            public Iterator<Edge> iterator() {
+                return new EdgeIterator();
+            }
+        };
+    }
+
+    // walks the adjacency lists, looking one edge ahead to skip the second copy of each edge
+    private class EdgeIterator implements Iterator<Edge> {
+        private int v = -1;
+        private int selfLoops;
+        private Iterator<Edge> current = Collections.<Edge>emptyIterator();
+        private Edge next = advance();
+
+        private Edge advance() {
+            while (true) {
+                while (!current.hasNext()) {
+                    if (++v >= numVertices) return null;
+                    current = adjacencyList[v].edgeListAtV().iterator();
+                    selfLoops = 0;
+                }
+                Edge e = current.next();
+                if (e.other(v) > v) return e;
+                // only one copy of each self loop (self loops will be consecutive)
+                if (e.other(v) == v && selfLoops++ % 2 == 0) return e;
+            }
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Edge next() {
+            if (next == null) throw new NoSuchElementException();
+            Edge e = next;
+            next = advance();
+            return e;
+        }
+    }
+
+    /**
+     * Calls {@code action} on every edge in this edge-weighted graph, in the
+     * order {@code edges()} returns them, without creating an iterable.
+     *
+     * @param  action the operation to perform on each edge
+     */
+    public void forEachEdge(Consumer<? super Edge> action) {
         for (int v = 0; v < numVertices; v++) {
             int selfLoops = 0;
-            for (Edge e : adj(v)) {
+            for (Edge e : adjacencyList[v].edgeListAtV()) {
                 if (e.other(v) > v) {
-                    list.add(e);
+                    action.accept(e);
                 }
                 // add only one copy of each self loop (self loops will be consecutive)
                 else if (e.other(v) == v) {
-                    if (selfLoops % 2 == 0) list.add(e);
+                    if (selfLoops % 2 == 0) action.accept(e);
                     selfLoops++;
                 }
             }
         }
-        return list;
     }
 
     /**
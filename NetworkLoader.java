@@ -0,0 +1,82 @@
+import java.util.*;
+import java.io.*;
+import java.nio.file.NoSuchFileException;
+
+/*
+* Reads a network data file once and builds every graph view from it.
+* The file is either a text network data file, tokenized by NetworkDataParser
+* straight into primitive arrays, or a GraphSnapshot restored without parsing.
+* Both produce the CSRGraph first; the undirected NetworkGraph and the dual way
+* EdgeWeightedDigraph are only built from it the first time they are asked for,
+* and the undirected graph stores one shared Edge in both endpoint lists.
+*/
+public class NetworkLoader
+{
+    private CSRGraph csrGraph;                  // array form of the dual way graph
+    private NetworkGraph networkGraph;          // undirected view, built on first use
+    private EdgeWeightedDigraph dualWayDiGraph; // directed view, one edge each way per cable, built on first use
+
+    // loads the graph from the command line specified file
+    public NetworkLoader(String file) throws IOException
+    {
+        if(file == null)
+        {
+            System.out.println("You provided no file for inputing network data");
+            return;
+        }
+        try
+        {
+            if(GraphSnapshot.isSnapshot(file))
+                csrGraph = GraphSnapshot.read(file);
+            else
+                csrGraph = new CSRGraph(new NetworkDataParser(file));
+        }
+        catch (NoSuchFileException e)
+        {
+            System.out.println("This file was not found!");
+            return;
+        }
+    }
+
+    // returns the undirected graph, null if the file could not be read
+    public NetworkGraph graph()
+    {
+        if(networkGraph == null && csrGraph != null)
+        {
+            networkGraph = new NetworkGraph(csrGraph.V());
+            for(int v = 0; v < csrGraph.V(); v++)
+            {
+                int selfLoops = 0;
+                for(int a = csrGraph.begin(v); a < csrGraph.end(v); a++)
+                {
+                    int w = csrGraph.target(a);
+                    // each cable is stored as two arcs, keep the one leaving its smaller endpoint
+                    if(w > v || (w == v && selfLoops++ % 2 == 0))
+                        networkGraph.addEdge(new Edge(v, w, MediaType.of(csrGraph.type(a)),
+                                                      csrGraph.bandwidth(a), csrGraph.length(a)));
+                }
+            }
+        }
+        return networkGraph;
+    }
+
+    // returns the dual way directed graph, null if the file could not be read
+    public EdgeWeightedDigraph digraph()
+    {
+        if(dualWayDiGraph == null && csrGraph != null)
+        {
+            dualWayDiGraph = new EdgeWeightedDigraph(csrGraph.V());
+            for(int v = 0; v < csrGraph.V(); v++)
+                for(int a = csrGraph.begin(v); a < csrGraph.end(v); a++)
+                    dualWayDiGraph.addEdge(new DirectedEdge(v, csrGraph.target(a), MediaType.of(csrGraph.type(a)),
+                                                            csrGraph.bandwidth(a), csrGraph.length(a)));
+        }
+        return dualWayDiGraph;
+    }
+
+    // returns the CSR form of the dual way graph, null if the file could not be read
+    public CSRGraph csr()
+    {
+        return csrGraph;
+    }
+}
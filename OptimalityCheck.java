@@ -0,0 +1,244 @@
+/******************************************************************************
+ *  Compilation:  javac OptimalityCheck.java
+ *  Execution:    java OptimalityCheck network_data.txt
+ *                java OptimalityCheck network_data.txt 20
+ *
+ *  Verifies shortest-paths trees and minimum spanning forests against their
+ *  optimality conditions. The first form checks the tree of every source
+ *  and every cut of the forest; the second only 20 random sources and cuts.
+ *
+ ******************************************************************************/
+import java.io.*;
+import java.util.*;
+
+/**
+ *  The {@code OptimalityCheck} class verifies the results of
+ *  {@link DijkstraSP} and of the minimum spanning forest classes. These
+ *  checks used to run inside the constructors as assertions; they are kept
+ *  out of the production path and run only when asked for.
+ *  <p>
+ *  A shortest-paths tree from <em>s</em> is optimal if every edge
+ *  <em>v</em>-&gt;<em>w</em> satisfies distTo[<em>w</em>] &lt;=
+ *  distTo[<em>v</em>] + weight and every tree edge holds with equality.
+ *  Checking one tree takes time proportional to <em>E</em>, so checking
+ *  every source takes time proportional to <em>V</em> (<em>E</em> log
+ *  <em>V</em>) including the searches; {@code sampleShortestPaths()} checks
+ *  a random subset of sources instead.
+ *  <p>
+ *  A spanning forest is minimal if, for every tree edge <em>e</em>, no edge
+ *  crossing the cut made by removing <em>e</em> is lighter. Checking every
+ *  cut takes time proportional to <em>E</em> <em>V</em> &alpha;(<em>V</em>);
+ *  the sampled form checks a random subset of the tree edges.
+ *  <p>
+ *  Violations are reported on standard error, as the assertions did.
+ */
+public class OptimalityCheck {
+    private static final double FLOATING_POINT_EPSILON = 1E-12;
+
+    // this class should not be instantiated
+    private OptimalityCheck() { }
+
+    /**
+     * Checks the optimality conditions of a shortest-paths tree.
+     * @param  G the edge-weighted digraph
+     * @param  sp the shortest-paths tree computed from {@code s} on {@code G}
+     * @param  s the source vertex
+     * @return {@code true} if the tree is a shortest-paths tree of {@code G}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public static boolean checkShortestPaths(EdgeWeightedDigraph G, DijkstraSP sp, int s) {
+
+        // check that edge weights are nonnegative
+        for (int v = 0; v < G.V(); v++) {
+            for (DirectedEdge e : G.adj(v)) {
+                if (e.weight() < 0) {
+                    System.err.println("negative edge weight detected");
+                    return false;
+                }
+            }
+        }
+
+        // check that distTo[v] and edgeTo[v] are consistent
+        if (sp.distTo(s) != 0.0 || sp.edgeTo(s) != null) {
+            System.err.println("distTo[s] and edgeTo[s] inconsistent");
+            return false;
+        }
+        for (int v = 0; v < G.V(); v++) {
+            if (v == s) continue;
+            if (sp.edgeTo(v) == null && sp.distTo(v) != Double.POSITIVE_INFINITY) {
+                System.err.println("distTo[] and edgeTo[] inconsistent");
+                return false;
+            }
+        }
+
+        // check that all edges e = v->w satisfy distTo[w] <= distTo[v] + e.weight()
+        for (int v = 0; v < G.V(); v++) {
+            for (DirectedEdge e : G.adj(v)) {
+                int w = e.to();
+                if (sp.distTo(v) + e.weight() < sp.distTo(w)) {
+                    System.err.println("edge " + e + " not relaxed");
+                    return false;
+                }
+            }
+        }
+
+        // check that all edges e = v->w on SPT satisfy distTo[w] == distTo[v] + e.weight()
+        for (int w = 0; w < G.V(); w++) {
+            DirectedEdge e = sp.edgeTo(w);
+            if (e == null) continue;
+            int v = e.from();
+            if (w != e.to()) return false;
+            if (sp.distTo(v) + e.weight() != sp.distTo(w)) {
+                System.err.println("edge " + e + " on shortest path not tight");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs {@link DijkstraSP} from {@code sources} random vertices and checks
+     * each tree. With {@code sources >= V} every vertex is checked once.
+     * @param  G the edge-weighted digraph
+     * @param  sources the number of source vertices to check
+     * @param  random the source of randomness
+     * @return the number of sources whose tree failed the check
+     * @throws IllegalArgumentException if {@code sources < 0}
+     */
+    public static int sampleShortestPaths(EdgeWeightedDigraph G, int sources, Random random) {
+        int[] picked = sample(G.V(), sources, random);
+        int failures = 0;
+        for (int s : picked)
+            if (!checkShortestPaths(G, new DijkstraSP(G, s), s)) failures++;
+        return failures;
+    }
+
+    /**
+     * Checks that {@code mst} is a minimum spanning forest of {@code G},
+     * testing the cut optimality condition for every tree edge.
+     * @param  G the edge-weighted digraph, with every cable in both directions
+     * @param  mst the edges of the forest
+     * @param  weight the weight reported for the forest
+     * @return {@code true} if {@code mst} is a minimum spanning forest of {@code G}
+     */
+    public static boolean checkMST(EdgeWeightedDigraph G, Iterable<DirectedEdge> mst, double weight) {
+        return checkMST(G, mst, weight, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Checks that {@code mst} is a spanning forest of {@code G} of the reported
+     * weight, and tests the cut optimality condition for {@code cuts} random
+     * tree edges.
+     * @param  G the edge-weighted digraph, with every cable in both directions
+     * @param  mst the edges of the forest
+     * @param  weight the weight reported for the forest
+     * @param  cuts the number of tree edges whose cut is checked
+     * @param  random the source of randomness; may be {@code null} if
+     *         {@code cuts} is at least the number of tree edges
+     * @return {@code true} if no violation was found
+     * @throws IllegalArgumentException if {@code cuts < 0}
+     */
+    public static boolean checkMST(EdgeWeightedDigraph G, Iterable<DirectedEdge> mst, double weight,
+                                   int cuts, Random random) {
+        List<DirectedEdge> tree = new ArrayList<DirectedEdge>();
+        for (DirectedEdge e : mst)
+            tree.add(e);
+
+        // check weight
+        double totalWeight = 0.0;
+        for (DirectedEdge e : tree) {
+            totalWeight += e.weight();
+        }
+        if (Math.abs(totalWeight - weight) > FLOATING_POINT_EPSILON) {
+            System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", totalWeight, weight);
+            return false;
+        }
+
+        // check that it is acyclic
+        UF uf = new UF(G.V());
+        for (DirectedEdge e : tree) {
+            int v = e.either(), w = e.other(v);
+            if (uf.connected(v, w)) {
+                System.err.println("Not a forest");
+                return false;
+            }
+            uf.union(v, w);
+        }
+
+        // check that it is a spanning forest
+        for (int x = 0; x < G.V(); x++) {
+            for (DirectedEdge f : G.adj(x)) {
+                if (!uf.connected(x, f.to())) {
+                    System.err.println("Not a spanning forest");
+                    return false;
+                }
+            }
+        }
+
+        // check that it is a minimal spanning forest (cut optimality conditions)
+        int[] picked = cuts >= tree.size() ? sample(tree.size(), tree.size(), null)
+                                           : sample(tree.size(), cuts, random);
+        for (int i : picked) {
+            DirectedEdge e = tree.get(i);
+
+            // all edges in MST except e
+            uf = new UF(G.V());
+            for (DirectedEdge f : tree) {
+                int x = f.either(), y = f.other(x);
+                if (f != e) uf.union(x, y);
+            }
+
+            // check that e is min weight edge in crossing cut
+            for (int x = 0; x < G.V(); x++) {
+                for (DirectedEdge f : G.adj(x)) {
+                    if (!uf.connected(x, f.to()) && f.weight() < e.weight()) {
+                        System.err.println("Edge " + f + " violates cut optimality conditions");
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // k distinct values from 0 .. n-1, or all of them in order if k >= n
+    private static int[] sample(int n, int k, Random random) {
+        if (k < 0) throw new IllegalArgumentException("sample size must be nonnegative");
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++)
+            a[i] = i;
+        if (k >= n) return a;
+        for (int i = 0; i < k; i++) {           // partial Fisher-Yates shuffle
+            int j = i + random.nextInt(n - i);
+            int swap = a[i];
+            a[i] = a[j];
+            a[j] = swap;
+        }
+        return Arrays.copyOf(a, k);
+    }
+
+    /**
+     * Checks the shortest-paths trees and the minimum spanning forest of a
+     * network, either exhaustively or for a number of random samples.
+     * @param args the network file and optionally the number of samples
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 2) {
+            System.out.println("Usage: java OptimalityCheck network_data.txt [samples]");
+            return;
+        }
+        EdgeWeightedDigraph G = new NetworkLoader(args[0]).digraph();
+        if (G == null) return;
+        int samples = args.length == 2 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+        Random random = new Random();
+
+        int sources = Math.min(samples, G.V());
+        int failures = sampleShortestPaths(G, sources, random);
+        System.out.println(failures + " of " + sources + " shortest-paths trees failed the check");
+
+        PrimMST mst = new PrimMST(G);
+        boolean ok = checkMST(G, mst.edges(), mst.weight(), samples, random);
+        System.out.println("Minimum spanning forest " + (ok ? "passed" : "failed") + " the check");
+    }
+}
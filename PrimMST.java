@@ -14,12 +14,18 @@ import java.lang.*;
  *  returns its edges.
  *  <p>
  *  This implementation uses <em>Prim's algorithm</em> with an indexed
- *  binary heap.
+ *  4-ary heap of primitive double keys ({@link IndexDoubleMinPQ}).
  *  The constructor takes time proportional to <em>E</em> log <em>V</em>
  *  and extra space (not including the graph) proportional to <em>V</em>,
  *  where <em>V</em> is the number of vertices and <em>E</em> is the number of edges.
  *  Afterwards, the {@code weight()} method takes constant time
  *  and the {@code edges()} method takes time proportional to <em>V</em>.
+ *  The result is not verified; see {@link OptimalityCheck}.
+ *  <p>
+ *  On a {@link CSRGraph}, edges of equal weight are ordered by their
+ *  endpoints, as in {@link KruskalMST} and {@link BoruvkaMST}, so the three
+ *  find the same forest; the priority queue compares those endpoints
+ *  whenever two keys are equal.
  *  <p>
  *  For additional documentation,
  *  see <a href="https://algs4.cs.princeton.edu/43mst">Section 4.3</a> of
@@ -31,12 +37,14 @@ import java.lang.*;
  *  @author Kevin Wayne
  */
 public class PrimMST {
-    private static final double FLOATING_POINT_EPSILON = 1E-12;
-
     private DirectedEdge[] edgeTo;        // edgeTo[v] = shortest edge from tree vertex to non-tree vertex
     private double[] distTo;      // distTo[v] = weight of shortest such edge
     private boolean[] marked;     // marked[v] = true if v on tree, false otherwise
-    private IndexMinPQ<Double> pq;
+    private IndexDoubleMinPQ pq;
+    private CSRGraph csr;         // graph searched, when run on a CSRGraph
+    private int[] arcTo;          // arcTo[v] = id of shortest arc from tree vertex to v in csr
+    private double[] latency;     // latency[a] = cost of arc a in csr
+    private long[] tieTo;         // tieTo[v] = endpoints of arcTo[v], breaking ties between equal latencies
 
     /**
      * Compute a minimum spanning tree (or forest) of an edge-weighted graph.
@@ -46,15 +54,71 @@ public class PrimMST {
         edgeTo = new DirectedEdge[G.V()];
         distTo = new double[G.V()];
         marked = new boolean[G.V()];
-        pq = new IndexMinPQ<Double>(G.V());
+        pq = new IndexDoubleMinPQ(G.V());
         for (int v = 0; v < G.V(); v++)
             distTo[v] = Double.POSITIVE_INFINITY;
 
         for (int v = 0; v < G.V(); v++)      // run from each vertex to find
             if (!marked[v]) prim(G, v);      // minimum spanning forest
+    }
+
+    /**
+     * Compute a minimum spanning tree (or forest) of a graph in CSR form.
+     * Tree edges are only materialized as {@link DirectedEdge} objects by {@code edges()}.
+     * @param G the CSR graph, with every cable stored in both directions
+     */
+    public PrimMST(CSRGraph G) {
+        this(G, G.latencies());
+    }
+
+    /**
+     * Compute a minimum spanning tree (or forest) of a graph in CSR form, with
+     * arc {@code a} costing {@code latency[a]}, for example as computed by a
+     * {@link LatencyModel}. {@code weight()} sums those costs; the edges
+     * returned by {@code edges()} still report their propagation latency.
+     * @param G the CSR graph, with every cable stored in both directions
+     * @param latency the cost of every arc, the same in both directions of a cable
+     * @throws IllegalArgumentException unless {@code latency} has {@code G.E()} entries
+     */
+    public PrimMST(CSRGraph G, double[] latency) {
+        if (latency.length != G.E()) throw new IllegalArgumentException("latency array must have E entries");
+        csr = G;
+        this.latency = latency;
+        arcTo = new int[G.V()];
+        tieTo = new long[G.V()];
+        distTo = new double[G.V()];
+        marked = new boolean[G.V()];
+        pq = new IndexDoubleMinPQ(G.V());
+        for (int v = 0; v < G.V(); v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            arcTo[v] = -1;
+        }
+
+        for (int v = 0; v < G.V(); v++)      // run from each vertex to find
+            if (!marked[v]) prim(G, v);      // minimum spanning forest
+    }
 
-        // check optimality conditions
-        assert check(G);
+    // run Prim's algorithm in CSR graph G, starting from vertex s, ordering
+    // arcs of equal latency by their endpoints
+    private void prim(CSRGraph G, int s) {
+        distTo[s] = 0.0;
+        pq.insert(s, distTo[s]);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            marked[v] = true;
+            for (int a = G.begin(v); a < G.end(v); a++) {
+                int w = G.target(a);
+                if (marked[w]) continue;         // v-w is obsolete edge
+                long tie = KruskalMST.tieBreak(v, w);
+                if (latency[a] < distTo[w] || (latency[a] == distTo[w] && arcTo[w] != -1 && tie < tieTo[w])) {
+                    distTo[w] = latency[a];
+                    tieTo[w] = tie;
+                    arcTo[w] = a;
+                    if (pq.contains(w)) pq.decreaseKey(w, distTo[w], tie);
+                    else                pq.insert(w, distTo[w], tie);
+                }
+            }
+        }
     }
 
     // run Prim's algorithm in graph G, starting from vertex s
@@ -89,6 +153,11 @@ public class PrimMST {
      */
     public Iterable<DirectedEdge> edges() {
         Queue<DirectedEdge> mst = new Queue<DirectedEdge>();
+        if (csr != null) {
+            for (int v = 0; v < arcTo.length; v++)
+                if (arcTo[v] != -1) mst.enqueue(csr.edge(arcTo[v]));
+            return mst;
+        }
         for (int v = 0; v < edgeTo.length; v++) {
             DirectedEdge e = edgeTo[v];
             if (e != null) {
@@ -104,6 +173,11 @@ public class PrimMST {
      */
     public double weight() {
         double weight = 0.0;
+        if (csr != null) {
+            for (int v = 0; v < arcTo.length; v++)
+                if (arcTo[v] != -1) weight += latency[arcTo[v]];
+            return weight;
+        }
         for (DirectedEdge e : edges())
         {
             weight += e.weight();
@@ -111,64 +185,4 @@ public class PrimMST {
         return weight;
     }
 
-
-    // check optimality conditions (takes time proportional to E V lg* V)
-    private boolean check(EdgeWeightedDigraph G) {
-
-        // check weight
-        double totalWeight = 0.0;
-        for (DirectedEdge e : edges()) {
-            totalWeight += e.weight();
-        }
-        if (Math.abs(totalWeight - weight()) > FLOATING_POINT_EPSILON) {
-            System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", totalWeight, weight());
-            return false;
-        }
-
-        // check that it is acyclic
-        UF uf = new UF(G.V());
-        for (DirectedEdge e : edges()) {
-            int v = e.either(), w = e.other(v);
-            if (uf.connected(v, w)) {
-                System.err.println("Not a forest");
-                return false;
-            }
-            uf.union(v, w);
-        }
-
-        // check that it is a spanning forest
-        for (DirectedEdge e : G.edges()) {
-            int v = e.either(), w = e.other(v);
-            if (!uf.connected(v, w)) {
-                System.err.println("Not a spanning forest");
-                return false;
-            }
-        }
-
-        // check that it is a minimal spanning forest (cut optimality conditions)
-        for (DirectedEdge e : edges()) {
-
-            // all edges in MST except e
-            uf = new UF(G.V());
-            for (DirectedEdge f : edges()) {
-                int x = f.either(), y = f.other(x);
-                if (f != e) uf.union(x, y);
-            }
-
-            // check that e is min weight edge in crossing cut
-            for (DirectedEdge f : G.edges()) {
-                int x = f.either(), y = f.other(x);
-                if (!uf.connected(x, y)) {
-                    if (f.weight() < e.weight()) {
-                        System.err.println("Edge " + f + " violates cut optimality conditions");
-                        return false;
-                    }
-                }
-            }
-
-        }
-
-        return true;
-    }
-
 }
@@ -0,0 +1,173 @@
+/******************************************************************************
+ *
+ *  Lazily populated, bounded cache of single-source shortest path trees.
+ *  Replaces building a full DijkstraAllPairsSP for every menu query.
+ *
+ ******************************************************************************/
+import java.util.*;
+
+/**
+ *  The {@code ShortestPathCache} class answers shortest path queries on an
+ *  {@link EdgeWeightedDigraph} or a {@link CSRGraph} by computing a
+ *  {@link DijkstraSP} only for the source vertices that are actually asked about.
+ *  <p>
+ *  At most {@code capacity} shortest path trees are kept in memory; when the
+ *  cache is full the least recently used tree is evicted. Since the only way
+ *  to change an {@code EdgeWeightedDigraph} is {@code addEdge()}, the cache
+ *  remembers the edge count it was populated against and drops every tree
+ *  as soon as that count changes.
+ *  <p>
+ *  A miss takes time proportional to <em>E</em> log <em>V</em> (one Dijkstra
+ *  run), a hit takes constant time, and the cache uses space proportional to
+ *  {@code capacity} times <em>V</em>.
+ */
+public class ShortestPathCache {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final EdgeWeightedDigraph G;             // graph searched, null when using csr
+    private final CSRGraph csr;                      // immutable graph searched, null when using G
+    private final int capacity;                      // max number of cached trees
+    private final LinkedHashMap<Integer, DijkstraSP> trees;
+    private int edgeCount;                           // G.E() when trees were computed
+
+    /**
+     * Initializes an empty cache over {@code G} with the default capacity.
+     * @param G the edge-weighted digraph
+     */
+    public ShortestPathCache(EdgeWeightedDigraph G) {
+        this(G, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initializes an empty cache over {@code G} holding at most
+     * {@code capacity} shortest path trees.
+     * @param G the edge-weighted digraph
+     * @param capacity the maximum number of source vertices kept in memory
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public ShortestPathCache(EdgeWeightedDigraph G, int capacity) {
+        this(G, null, capacity);
+    }
+
+    /**
+     * Initializes an empty cache over the CSR graph {@code G} with the default
+     * capacity. A {@code CSRGraph} never changes, so the cache is never invalidated.
+     * @param G the CSR graph
+     */
+    public ShortestPathCache(CSRGraph G) {
+        this(null, G, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Initializes an empty cache over the CSR graph {@code G} holding at most
+     * {@code capacity} shortest path trees.
+     * @param G the CSR graph
+     * @param capacity the maximum number of source vertices kept in memory
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public ShortestPathCache(CSRGraph G, int capacity) {
+        this(null, G, capacity);
+    }
+
+    private ShortestPathCache(EdgeWeightedDigraph G, CSRGraph csr, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+        this.G = G;
+        this.csr = csr;
+        this.capacity = capacity;
+        this.edgeCount = G != null ? G.E() : csr.E();
+        // access-ordered map, so iteration order is least recently used first
+        this.trees = new LinkedHashMap<Integer, DijkstraSP>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, DijkstraSP> eldest) {
+                return size() > ShortestPathCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the shortest path tree rooted at {@code s}, computing it if it
+     * is not already cached.
+     * @param  s the source vertex
+     * @return the shortest path tree rooted at {@code s}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DijkstraSP tree(int s) {
+        validateVertex(s);
+        if (G != null && edgeCount != G.E()) invalidate();
+        DijkstraSP sp = trees.get(s);
+        if (sp == null) {
+            sp = G != null ? new DijkstraSP(G, s) : new DijkstraSP(csr, s);
+            trees.put(s, sp);
+        }
+        return sp;
+    }
+
+    /**
+     * Returns a shortest path from vertex {@code s} to vertex {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a shortest path from {@code s} to {@code t} as an iterable of
+     *         edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t) {
+        return tree(s).pathTo(t);
+    }
+
+    /**
+     * Is there a path from vertex {@code s} to vertex {@code t}?
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return {@code true} if there is a path from {@code s} to {@code t}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        return tree(s).hasPathTo(t);
+    }
+
+    /**
+     * Returns the length of a shortest path from vertex {@code s} to vertex {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the length of a shortest path from {@code s} to {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double dist(int s, int t) {
+        return tree(s).distTo(t);
+    }
+
+    /**
+     * Returns the smallest bandwidth on a shortest path from vertex {@code s} to vertex {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the bottleneck bandwidth; {@code Integer.MAX_VALUE} if {@code s == t},
+     *         and {@code 0} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public int bandwidth(int s, int t) {
+        return tree(s).bandwidthTo(t);
+    }
+
+    /**
+     * Discards every cached shortest path tree.
+     */
+    public void invalidate() {
+        trees.clear();
+        if (G != null) edgeCount = G.E();
+    }
+
+    /**
+     * Returns the number of shortest path trees currently cached.
+     * @return the number of cached source vertices
+     */
+    public int size() {
+        return trees.size();
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = G != null ? G.V() : csr.V();
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
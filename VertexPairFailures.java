@@ -0,0 +1,241 @@
+/******************************************************************************
+ *
+ *  Finds every pair of vertices whose simultaneous failure disconnects the
+ *  network, using one Tarjan low-link pass per removed vertex.
+ *  Runs in O(V (V + E)) time.
+ *
+ ******************************************************************************/
+import java.util.concurrent.*;
+
+/**
+ *  The {@code VertexPairFailures} class finds all pairs of vertices
+ *  {@code (i, k)} of an undirected network such that removing both
+ *  {@code i} and {@code k} leaves the remaining <em>V</em> - 2 vertices
+ *  disconnected.
+ *  <p>
+ *  For every vertex {@code i}, the graph without {@code i} is searched once,
+ *  computing its connected components and its articulation points with
+ *  Tarjan's low-link values. Removing a second vertex {@code k} then
+ *  disconnects the graph exactly when
+ *  <ul>
+ *  <li> the graph without {@code i} is connected and {@code k} is one of
+ *       its articulation points,
+ *  <li> it has two components and {@code k} is not alone in its component, or
+ *  <li> it has three or more components.
+ *  </ul>
+ *  This replaces running a depth first search for each of the
+ *  <em>V</em><sup>2</sup>/2 pairs.
+ *  <p>
+ *  The constructor takes time proportional to <em>V</em> (<em>V</em> + <em>E</em>)
+ *  and uses extra space proportional to <em>V</em> plus the number of failing pairs.
+ *  Each removed vertex is independent of the others, so the parallel
+ *  constructor spreads them over a {@link ForkJoinPool}. The low-link search
+ *  keeps its own int stack instead of recursing, so long chains of switches
+ *  cannot overflow a worker thread's call stack.
+ */
+public class VertexPairFailures {
+    private int[][] failing;     // failing[i] = ascending k > i such that (i, k) disconnects the graph
+    private int count;           // total number of failing pairs
+
+    /**
+     * Finds every failing vertex pair of {@code G} on the calling thread.
+     * @param G the CSR graph, with every cable stored in both directions
+     */
+    public VertexPairFailures(CSRGraph G) {
+        failing = new int[G.V()][];
+        new Pass(G).run(0, G.V());
+        for (int[] k : failing) count += k.length;
+    }
+
+    /**
+     * Finds every failing vertex pair of {@code G}, splitting the removed
+     * vertices across a fork/join pool of {@code parallelism} threads.
+     * Each worker thread reuses one set of search buffers for all the
+     * vertices it handles, and the result is the same as the sequential
+     * constructor's.
+     * @param G the CSR graph, with every cable stored in both directions
+     * @param parallelism the number of worker threads
+     * @throws IllegalArgumentException if {@code parallelism < 1}
+     */
+    public VertexPairFailures(final CSRGraph G, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        failing = new int[G.V()][];
+        int grain = Math.max(1, G.V() / (8 * parallelism));
+        ThreadLocal<Pass> passes = new ThreadLocal<Pass>() {
+            protected Pass initialValue() {
+                return new Pass(G);
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Range(passes, 0, G.V(), grain));
+        }
+        finally {
+            pool.shutdown();
+        }
+        for (int[] k : failing) count += k.length;
+    }
+
+    // fills failing[lo .. hi), splitting until a range is at most grain vertices;
+    // the ranges a worker thread runs share that thread's Pass
+    private class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ThreadLocal<Pass> passes;
+        private final int lo, hi, grain;
+
+        Range(ThreadLocal<Pass> passes, int lo, int hi, int grain) {
+            this.passes = passes;
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+        }
+
+        protected void compute() {
+            if (hi - lo <= grain) {
+                passes.get().run(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Range(passes, lo, mid, grain), new Range(passes, mid, hi, grain));
+        }
+    }
+
+    // search buffers for removing one vertex at a time, reused across vertices;
+    // marks are epoch stamps, so nothing is cleared between removed vertices
+    private class Pass {
+        private final CSRGraph G;
+        private final int[] visited;       // visited[v] == epoch iff v reached in this search
+        private final int[] cut;           // cut[v] == epoch iff v is an articulation point
+        private final int[] pre;           // pre[v] = preorder number of v
+        private final int[] low;           // low[v] = lowest preorder number reachable from v's subtree
+        private final int[] parent;        // parent[v] = parent of v in the dfs tree
+        private final int[] next;          // next[v] = next arc of v to scan
+        private final int[] stack;         // dfs stack of vertices
+        private final int[] component;     // component[v] = component of v
+        private final int[] size;          // size[c] = number of vertices in component c
+        private final int[] found;         // failing partners of the current vertex
+        private int epoch;
+        private int counter;
+
+        Pass(CSRGraph G) {
+            int V = G.V();
+            this.G = G;
+            visited = new int[V];
+            cut = new int[V];
+            pre = new int[V];
+            low = new int[V];
+            parent = new int[V];
+            next = new int[V];
+            stack = new int[V];
+            component = new int[V];
+            size = new int[V];
+            found = new int[V];
+        }
+
+        // fill failing[i] for every removed vertex i in [lo, hi)
+        void run(int lo, int hi) {
+            int V = G.V();
+            for (int i = lo; i < hi; i++) {
+                int components = search(i);
+                int n = 0;
+                for (int k = i + 1; k < V; k++) {
+                    boolean fails;
+                    if (V <= 2)               fails = false;   // nothing left to disconnect
+                    else if (components == 1) fails = cut[k] == epoch;
+                    else if (components == 2) fails = size[component[k]] > 1;
+                    else                      fails = true;
+                    if (fails) found[n++] = k;
+                }
+                int[] partners = new int[n];
+                System.arraycopy(found, 0, partners, 0, n);
+                failing[i] = partners;
+            }
+        }
+
+        // compute components and articulation points of G without vertex removed,
+        // returning the number of components
+        private int search(int removed) {
+            if (epoch == Integer.MAX_VALUE) {
+                java.util.Arrays.fill(visited, 0);
+                java.util.Arrays.fill(cut, 0);
+                epoch = 0;
+            }
+            epoch++;
+            visited[removed] = epoch;            // never entered, as if deleted
+            counter = 0;
+            int components = 0;
+            for (int v = 0; v < G.V(); v++) {
+                if (visited[v] == epoch) continue;
+                size[components] = 0;
+                dfs(v, removed, components);
+                components++;
+            }
+            return components;
+        }
+
+        // Tarjan's low-link search from root with an explicit stack, marking
+        // articulation points of the component of root in cut[]
+        private void dfs(int root, int removed, int c) {
+            int children = 0;
+            int top = 0;
+            enter(root, root, c);
+            stack[top++] = root;
+            while (top > 0) {
+                int v = stack[top - 1];
+                if (next[v] < G.end(v)) {
+                    int w = G.target(next[v]++);
+                    if (w == removed) continue;
+                    if (visited[w] != epoch) {
+                        if (v == root) children++;
+                        enter(v, w, c);
+                        stack[top++] = w;
+                    }
+                    else if (w != parent[v]) {
+                        low[v] = Math.min(low[v], pre[w]);
+                    }
+                }
+                else {
+                    // v is finished, pass its low-link up to its parent
+                    top--;
+                    int u = parent[v];
+                    if (v == root) continue;
+                    low[u] = Math.min(low[u], low[v]);
+                    if (low[v] >= pre[u] && u != root) cut[u] = epoch;
+                }
+            }
+            if (children > 1) cut[root] = epoch;
+        }
+
+        // visit w as a dfs tree child of u
+        private void enter(int u, int w, int c) {
+            visited[w] = epoch;
+            pre[w] = counter++;
+            low[w] = pre[w];
+            parent[w] = u;
+            next[w] = G.begin(w);
+            component[w] = c;
+            size[c]++;
+        }
+    }
+
+    /**
+     * Returns the vertices {@code k > i} such that failure of {@code i} and
+     * {@code k} disconnects the graph, in ascending order.
+     * @param  i the first vertex of the pairs
+     * @return the second vertices of the failing pairs starting at {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < V}
+     */
+    public int[] failingWith(int i) {
+        if (i < 0 || i >= failing.length)
+            throw new IllegalArgumentException("vertex " + i + " is not between 0 and " + (failing.length-1));
+        return failing[i].clone();
+    }
+
+    /**
+     * Returns the number of failing vertex pairs.
+     * @return the number of pairs {@code (i, k)}, {@code i < k}, whose failure disconnects the graph
+     */
+    public int count() {
+        return count;
+    }
+}
@@ -0,0 +1,130 @@
+/******************************************************************************
+ *
+ *  Single-source widest (maximum bottleneck bandwidth) paths using a
+ *  variant of Dijkstra's algorithm.
+ *
+ ******************************************************************************/
+
+/**
+ *  The {@code WidestPathSP} class represents a data type for finding, from a
+ *  source vertex <em>s</em>, a path to every other vertex whose smallest
+ *  edge bandwidth is as large as possible.
+ *  <p>
+ *  This implementation is Dijkstra's algorithm with the path length replaced
+ *  by the bottleneck bandwidth: vertices leave the priority queue in order of
+ *  decreasing bottleneck, and extending a path by an edge keeps the smaller of
+ *  the two bandwidths. The {@link IndexDoubleMinPQ} is keyed by the negated
+ *  bandwidth. The constructor takes time proportional to <em>E</em> log <em>V</em>;
+ *  {@code bandwidthTo(int)} and {@code hasPathTo(int)} take constant time and
+ *  {@code pathTo(int)} takes time proportional to the length of the path.
+ *  <p>
+ *  For many queries between arbitrary pairs, {@link WidestPathTree} answers
+ *  each one in time proportional to log <em>V</em> after one preprocessing step.
+ */
+public class WidestPathSP {
+    private int[] bandwidthTo;        // bandwidthTo[v] = bottleneck of widest known s->v path, -1 if none
+    private DirectedEdge[] edgeTo;    // edgeTo[v] = last edge on widest known s->v path
+    private IndexDoubleMinPQ pq;      // vertices keyed by negated bottleneck
+
+    /**
+     * Computes a widest path from {@code s} to every vertex reachable from it.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public WidestPathSP(EdgeWeightedDigraph G, int s) {
+        this(G, s, -1);
+    }
+
+    /**
+     * Computes a widest path from {@code s} to {@code t}, stopping as soon as
+     * {@code t} is removed from the priority queue. Only the answers for
+     * {@code t} and the vertices settled before it are final.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @param  t the target vertex, or {@code -1} to settle every reachable vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code t == -1} or {@code 0 <= t < V}
+     */
+    public WidestPathSP(EdgeWeightedDigraph G, int s, int t) {
+        bandwidthTo = new int[G.V()];
+        edgeTo = new DirectedEdge[G.V()];
+
+        validateVertex(s);
+        if (t != -1) validateVertex(t);
+
+        for (int v = 0; v < G.V(); v++)
+            bandwidthTo[v] = -1;
+        bandwidthTo[s] = Integer.MAX_VALUE;
+
+        // settle vertices in order of decreasing bottleneck from s
+        pq = new IndexDoubleMinPQ(G.V());
+        pq.insert(s, -(double) bandwidthTo[s]);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            if (v == t) break;      // bandwidthTo[t] can no longer improve
+            for (DirectedEdge e : G.adj(v))
+                relax(e);
+        }
+    }
+
+    // widen the path to e.to() through e and update pq if changed
+    private void relax(DirectedEdge e) {
+        int v = e.from(), w = e.to();
+        int b = Math.min(bandwidthTo[v], e.getBandwith());
+        if (b > bandwidthTo[w]) {
+            bandwidthTo[w] = b;
+            edgeTo[w] = e;
+            if (pq.contains(w)) pq.decreaseKey(w, -(double) b);
+            else                pq.insert(w, -(double) b);
+        }
+    }
+
+    /**
+     * Returns the bottleneck bandwidth of a widest path from {@code s} to {@code v}.
+     * @param  v the destination vertex
+     * @return the largest achievable minimum bandwidth; {@code Integer.MAX_VALUE}
+     *         if {@code v} is the source, and {@code 0} if there is no such path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int bandwidthTo(int v) {
+        validateVertex(v);
+        return Math.max(bandwidthTo[v], 0);
+    }
+
+    /**
+     * Is there a path from {@code s} to {@code v}?
+     * @param  v the destination vertex
+     * @return {@code true} if there is a path from {@code s} to {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return bandwidthTo[v] >= 0;
+    }
+
+    /**
+     * Returns a widest path from {@code s} to {@code v}.
+     * @param  v the destination vertex
+     * @return a widest path from {@code s} to {@code v} as an iterable of
+     *         edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        if (!hasPathTo(v)) return null;
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        for (DirectedEdge e = edgeTo[v]; e != null; e = edgeTo[e.from()])
+            path.push(e);
+        return path;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = bandwidthTo.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
@@ -0,0 +1,253 @@
+/******************************************************************************
+ *
+ *  All-pairs widest (maximum bottleneck bandwidth) paths from a maximum
+ *  spanning forest, with binary lifting for logarithmic time queries.
+ *
+ ******************************************************************************/
+import java.util.*;
+
+/**
+ *  The {@code WidestPathTree} class answers widest path queries between any
+ *  two vertices of a network whose cables can be used in both directions.
+ *  <p>
+ *  In a maximum spanning tree, the tree path between two vertices is a
+ *  widest path between them in the whole graph. The constructor builds a
+ *  maximum spanning forest with Kruskal's algorithm (edges in decreasing
+ *  order of bandwidth, joined with a {@link UF}), roots every tree, and
+ *  stores for each vertex its 2<sup><em>k</em></sup>-th ancestor together
+ *  with the smallest bandwidth on the way there.
+ *  <p>
+ *  Preprocessing takes time proportional to <em>E</em> log <em>E</em> +
+ *  <em>V</em> log <em>V</em> and space proportional to <em>V</em> log <em>V</em>.
+ *  Afterwards {@code connected()} takes near constant time,
+ *  {@code bandwidth()} takes time proportional to log <em>V</em>, and
+ *  {@code path()} takes time proportional to the length of the tree path.
+ *  The widest path returned need not be the lowest latency one among
+ *  paths with the same bottleneck.
+ */
+public class WidestPathTree {
+    private final UF uf;                    // components of the network
+    private final int[] depth;              // depth[v] = number of tree edges from v to its root
+    private final int[][] up;               // up[k][v] = 2^k-th ancestor of v, the root caps it
+    private final int[][] minUp;            // minUp[k][v] = smallest bandwidth from v to up[k][v]
+    private final DirectedEdge[] parentEdge;// parentEdge[v] = tree edge oriented parent -> v
+
+    private final DirectedEdge[] treeEdge;  // edges accepted by Kruskal's algorithm
+    private int treeEdges;
+
+    /**
+     * Builds the maximum spanning forest of {@code G}, treating every edge
+     * as usable in both directions.
+     * @param G the edge-weighted digraph
+     */
+    public WidestPathTree(EdgeWeightedDigraph G) {
+        int V = G.V();
+        uf = new UF(V);
+        treeEdge = new DirectedEdge[Math.max(V - 1, 0)];
+        ArrayList<DirectedEdge> edges = new ArrayList<DirectedEdge>(G.E());
+        for (DirectedEdge e : G.edges())
+            edges.add(e);
+        edges.sort(new Comparator<DirectedEdge>() {
+            public int compare(DirectedEdge a, DirectedEdge b) {
+                return Integer.compare(b.getBandwith(), a.getBandwith());
+            }
+        });
+        for (DirectedEdge e : edges) {
+            if (treeEdges == treeEdge.length) break;
+            join(e);
+        }
+        depth = new int[V];
+        parentEdge = new DirectedEdge[V];
+        up = new int[levels(V)][V];
+        minUp = new int[up.length][V];
+        root(V);
+    }
+
+    /**
+     * Builds the maximum spanning forest of {@code G}. Each cable is read
+     * from the arc whose tail is smaller than its target, and only the
+     * accepted cables are materialized as {@link DirectedEdge} objects.
+     * @param G the CSR graph
+     */
+    public WidestPathTree(CSRGraph G) {
+        int V = G.V();
+        uf = new UF(V);
+        treeEdge = new DirectedEdge[Math.max(V - 1, 0)];
+
+        // sort arc ids by decreasing bandwidth, packed as (MAX - bandwidth, arc) longs
+        long[] order = new long[G.E()];
+        int n = 0;
+        for (int v = 0; v < V; v++)
+            for (int a = G.begin(v); a < G.end(v); a++)
+                if (v < G.target(a))
+                    order[n++] = ((long) (Integer.MAX_VALUE - G.bandwidth(a)) << 32) | a;
+        Arrays.sort(order, 0, n);
+        for (int i = 0; i < n && treeEdges < treeEdge.length; i++) {
+            int a = (int) order[i];
+            if (!uf.connected(G.tail(a), G.target(a)))
+                join(G.edge(a));
+        }
+        depth = new int[V];
+        parentEdge = new DirectedEdge[V];
+        up = new int[levels(V)][V];
+        minUp = new int[up.length][V];
+        root(V);
+    }
+
+    // add e to the forest if it joins two trees
+    private void join(DirectedEdge e) {
+        int v = e.from(), w = e.to();
+        if (uf.connected(v, w)) return;
+        uf.union(v, w);
+        treeEdge[treeEdges++] = e;
+    }
+
+    // number of ancestor levels needed so that 2^(levels-1) >= V - 1
+    private static int levels(int V) {
+        int k = 1;
+        while ((1 << (k - 1)) < V - 1) k++;
+        return k;
+    }
+
+    // orient every tree from an arbitrary root with a breadth first search,
+    // then fill the ancestor tables level by level
+    private void root(int V) {
+        // adjacency of the forest in CSR form: slots begin[v] .. begin[v+1]-1
+        int[] begin = new int[V + 1];
+        for (int i = 0; i < treeEdges; i++) {
+            begin[treeEdge[i].from() + 1]++;
+            begin[treeEdge[i].to() + 1]++;
+        }
+        for (int v = 0; v < V; v++)
+            begin[v + 1] += begin[v];
+        int[] next = Arrays.copyOf(begin, V);
+        int[] slot = new int[2 * treeEdges];
+        for (int i = 0; i < treeEdges; i++) {
+            slot[next[treeEdge[i].from()]++] = i;
+            slot[next[treeEdge[i].to()]++] = i;
+        }
+
+        boolean[] marked = new boolean[V];
+        int[] queue = new int[V];
+        for (int r = 0; r < V; r++) {
+            if (marked[r]) continue;
+            int head = 0, tail = 0;
+            marked[r] = true;
+            up[0][r] = r;
+            minUp[0][r] = Integer.MAX_VALUE;
+            queue[tail++] = r;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int k = begin[v]; k < begin[v + 1]; k++) {
+                    DirectedEdge e = treeEdge[slot[k]];
+                    int w = e.other(v);
+                    if (marked[w]) continue;
+                    marked[w] = true;
+                    depth[w] = depth[v] + 1;
+                    up[0][w] = v;
+                    minUp[0][w] = e.getBandwith();
+                    parentEdge[w] = e.from() == v ? e : e.reverse();
+                    queue[tail++] = w;
+                }
+            }
+        }
+        for (int k = 1; k < up.length; k++) {
+            for (int v = 0; v < V; v++) {
+                int mid = up[k-1][v];
+                up[k][v] = up[k-1][mid];
+                minUp[k][v] = Math.min(minUp[k-1][v], minUp[k-1][mid]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertices.
+     * @return the number of vertices
+     */
+    public int V() {
+        return depth.length;
+    }
+
+    /**
+     * Is there a path between {@code s} and {@code t}?
+     * @param  s one vertex
+     * @param  t the other vertex
+     * @return {@code true} if {@code s} and {@code t} are in the same component
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean connected(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        return uf.connected(s, t);
+    }
+
+    /**
+     * Returns the bottleneck bandwidth of a widest path between {@code s} and {@code t}.
+     * @param  s one vertex
+     * @param  t the other vertex
+     * @return the largest achievable minimum bandwidth; {@code Integer.MAX_VALUE}
+     *         if {@code s == t}, and {@code 0} if there is no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public int bandwidth(int s, int t) {
+        if (!connected(s, t)) return 0;
+        int min = Integer.MAX_VALUE;
+        if (depth[s] < depth[t]) {
+            int swap = s;
+            s = t;
+            t = swap;
+        }
+        // lift s to the depth of t
+        for (int k = up.length - 1; k >= 0; k--) {
+            if (depth[s] - (1 << k) >= depth[t]) {
+                min = Math.min(min, minUp[k][s]);
+                s = up[k][s];
+            }
+        }
+        if (s == t) return min;
+        // lift both to just below their lowest common ancestor
+        for (int k = up.length - 1; k >= 0; k--) {
+            if (up[k][s] != up[k][t]) {
+                min = Math.min(min, Math.min(minUp[k][s], minUp[k][t]));
+                s = up[k][s];
+                t = up[k][t];
+            }
+        }
+        return Math.min(min, Math.min(minUp[0][s], minUp[0][t]));
+    }
+
+    /**
+     * Returns a widest path from {@code s} to {@code t}, with every edge
+     * oriented from {@code s} towards {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a widest path from {@code s} to {@code t} as an iterable of
+     *         edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t) {
+        if (!connected(s, t)) return null;
+        Queue<DirectedEdge> fromS = new Queue<DirectedEdge>();
+        Stack<DirectedEdge> toT = new Stack<DirectedEdge>();
+        while (s != t) {
+            if (depth[s] >= depth[t]) {
+                fromS.enqueue(parentEdge[s].reverse());
+                s = up[0][s];
+            }
+            else {
+                toT.push(parentEdge[t]);
+                t = up[0][t];
+            }
+        }
+        for (DirectedEdge e : toT)
+            fromS.enqueue(e);
+        return fromS;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = depth.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}